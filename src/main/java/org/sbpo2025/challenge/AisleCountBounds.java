@@ -0,0 +1,120 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Cheap upper bounds on the objective for each number of aisles k, computed once per instance in
+ * O(nnz log nnz). The units picked with k aisles are bounded by the minimum of:
+ *  - the wave size upper bound and the total demand,
+ *  - the sum of the k largest useful aisle capacities (each item capped by its demand),
+ *  - sum over items of min(demand, its k largest aisle quantities).
+ * A k whose units bound is below the wave size lower bound cannot be feasible (bound 0).
+ */
+public class AisleCountBounds {
+    private final double[] upperBound;   // upperBound[k], k in 1..nAisles
+    private final double[] suffixMax;    // max of upperBound[k..nAisles]
+    private final long[] unitsBound;     // unitsBound[k]
+    private final int minimumAisles;     // smallest k with unitsBound[k] >= waveSizeLB, nAisles + 1 if none
+
+    public AisleCountBounds(InstanceData instance, InstanceStatistics statistics) {
+        int nAisles = instance.nAisles;
+
+        // k largest useful capacities
+        long[] useful = new long[nAisles];
+        for (int a = 0; a < nAisles; a++) {
+            long capacity = 0;
+            for (int p = instance.aisleStart[a]; p < instance.aisleStart[a + 1]; p++) {
+                capacity += Math.min(instance.aisleQuantities[p], statistics.itemDemand[instance.aisleItems[p]]);
+            }
+            useful[a] = capacity;
+        }
+        Arrays.sort(useful);
+        long[] capacityBound = new long[nAisles + 1];
+        for (int k = 1; k <= nAisles; k++) {
+            capacityBound[k] = capacityBound[k - 1] + useful[nAisles - k];
+        }
+
+        // per item: gain of its k-th largest aisle quantity, until the demand is covered
+        long[] itemGain = new long[nAisles + 1];
+        int[] quantities = new int[0];
+        for (int i = 0; i < instance.nItems; i++) {
+            int demand = statistics.itemDemand[i];
+            int degree = instance.itemAisleStart[i + 1] - instance.itemAisleStart[i];
+            if (demand == 0 || degree == 0) {
+                continue;
+            }
+            if (quantities.length < degree) {
+                quantities = new int[degree];
+            }
+            System.arraycopy(instance.itemAisleQuantities, instance.itemAisleStart[i], quantities, 0, degree);
+            Arrays.sort(quantities, 0, degree);
+            long covered = 0;
+            for (int k = 1; k <= degree && covered < demand; k++) {
+                long gain = Math.min(quantities[degree - k], demand - covered);
+                covered += gain;
+                itemGain[k] += gain;
+            }
+        }
+
+        this.unitsBound = new long[nAisles + 1];
+        this.upperBound = new double[nAisles + 2];
+        long itemBound = 0;
+        int firstFeasible = nAisles + 1;
+        for (int k = 1; k <= nAisles; k++) {
+            itemBound += itemGain[k];
+            long units = Math.min(Math.min(instance.waveSizeUB, statistics.totalUnits), Math.min(capacityBound[k], itemBound));
+            unitsBound[k] = units;
+            if (units < instance.waveSizeLB) {
+                upperBound[k] = 0; // not enough units with k aisles
+            } else {
+                upperBound[k] = (double) units / k;
+                firstFeasible = Math.min(firstFeasible, k);
+            }
+        }
+        this.minimumAisles = firstFeasible;
+
+        this.suffixMax = new double[nAisles + 2];
+        for (int k = nAisles; k >= 1; k--) {
+            suffixMax[k] = Math.max(upperBound[k], suffixMax[k + 1]);
+        }
+    }
+
+    /**
+     * @return upper bound on the objective of any solution with exactly k aisles
+     */
+    public double upperBound(int k) {
+        return k >= 1 && k < upperBound.length ? upperBound[k] : 0;
+    }
+
+    /**
+     * @return upper bound on the objective of any solution with k or more aisles
+     */
+    public double upperBoundFrom(int k) {
+        return suffixMax[Math.max(1, Math.min(k, suffixMax.length - 1))];
+    }
+
+    /**
+     * @return upper bound on the objective of any solution
+     */
+    public double upperBound() {
+        return upperBoundFrom(1);
+    }
+
+    public long unitsBound(int k) {
+        return k >= 1 && k < unitsBound.length ? unitsBound[k] : 0;
+    }
+
+    /**
+     * @return smallest number of aisles that can reach the wave size lower bound
+     */
+    public int minimumAisles() {
+        return minimumAisles;
+    }
+
+    /**
+     * @return true if a solution with k aisles could beat the given objective
+     */
+    public boolean canImprove(int k, double objective) {
+        return upperBound(k) > objective + 1e-9;
+    }
+}
@@ -0,0 +1,160 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Post-optimization of a final solution: try removing each visited aisle, least used first.
+ * Only the orders of items left in deficit are dropped (smallest first; the others stay covered by
+ * the remaining aisles), then the dropped orders and the orders of the items they freed are
+ * refilled, largest first, from the remaining stock. The trial is kept if units / aisles improves,
+ * otherwise undone move by move. Everything runs on the IncrementalEvaluator slack, so a trial
+ * costs O(items of the aisle + orders touched).
+ */
+public class AisleDropRepair {
+    private final InstanceData instance;
+    private final InstanceStatistics statistics;
+    private final IncrementalEvaluator evaluator;
+
+    private final int[] dropped;        // orders dropped in the current trial
+    private final int[] added;          // orders added in the current trial
+    private final long[] candidates;    // refill candidates, key (-units, order)
+    private final int[] orderStamp;
+    private final long[] aisleKeys;
+    private int stampValue;
+    private int droppedCount;
+    private int addedCount;
+
+    private int trials;
+    private int accepted;
+
+    public AisleDropRepair(InstanceData instance, InstanceStatistics statistics) {
+        this.instance = instance;
+        this.statistics = statistics;
+        this.evaluator = new IncrementalEvaluator(instance, statistics);
+        this.dropped = new int[instance.nOrders];
+        this.added = new int[instance.nOrders];
+        this.candidates = new long[instance.nOrders];
+        this.orderStamp = new int[instance.nOrders];
+        this.aisleKeys = new long[instance.nAisles];
+    }
+
+    /**
+     * @param deadline System.nanoTime() at which the pass stops
+     * @return the improved solution, or initial if no removal improves it
+     */
+    public PartialResult run(PartialResult initial, long deadline) {
+        if (initial.partialSolution() == null) {
+            return initial;
+        }
+        evaluator.load(initial.partialSolution());
+
+        boolean improved = true;
+        while (improved && evaluator.aislesCount() > 1 && System.nanoTime() < deadline) {
+            improved = false;
+            int n = sortedAisles();
+            for (int j = 0; j < n && System.nanoTime() < deadline; j++) {
+                trials++;
+                if (tryRemove((int) aisleKeys[j])) {
+                    accepted++;
+                    improved = true;
+                    break; // the usage of the other aisles changed, sort again
+                }
+            }
+        }
+        return accepted > 0 ? evaluator.toPartialResult() : initial;
+    }
+
+    public int trials() {
+        return trials;
+    }
+
+    public int accepted() {
+        return accepted;
+    }
+
+    // visited aisles by used units (capacity minus the slack they leave), least used first
+    private int sortedAisles() {
+        int n = 0;
+        for (int a = 0; a < instance.nAisles; a++) {
+            if (!evaluator.hasAisle(a)) {
+                continue;
+            }
+            int used = 0;
+            for (int p = instance.aisleStart[a]; p < instance.aisleStart[a + 1]; p++) {
+                int slack = Math.max(0, evaluator.slack(instance.aisleItems[p]));
+                used += instance.aisleQuantities[p] - Math.min(instance.aisleQuantities[p], slack);
+            }
+            aisleKeys[n++] = ((long) used << 32) | a;
+        }
+        Arrays.sort(aisleKeys, 0, n);
+        return n;
+    }
+
+    private boolean tryRemove(int aisle) {
+        double objective = evaluator.objective();
+        droppedCount = 0;
+        addedCount = 0;
+        stampValue++;
+
+        evaluator.removeAisle(aisle);
+
+        // drop orders of the items in deficit, smallest first
+        for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+            int item = instance.aisleItems[p];
+            while (evaluator.slack(item) < 0) {
+                int smallest = -1;
+                for (int q = instance.itemOrderStart[item]; q < instance.itemOrderStart[item + 1]; q++) {
+                    int order = instance.itemOrders[q];
+                    if (evaluator.hasOrder(order) && (smallest < 0 || statistics.orderUnits[order] < statistics.orderUnits[smallest])) {
+                        smallest = order;
+                    }
+                }
+                evaluator.removeOrder(smallest);
+                dropped[droppedCount++] = smallest;
+            }
+        }
+
+        // refill, largest first: the dropped orders and the orders of the items they freed
+        int n = 0;
+        for (int d = 0; d < droppedCount; d++) {
+            int order = dropped[d];
+            orderStamp[order] = stampValue; // a dropped order is tried once, below
+            candidates[n++] = ((long) -statistics.orderUnits[order] << 32) | order;
+        }
+        for (int d = 0; d < droppedCount; d++) {
+            int order = dropped[d];
+            for (int p = instance.orderStart[order]; p < instance.orderStart[order + 1]; p++) {
+                int item = instance.orderItems[p];
+                for (int q = instance.itemOrderStart[item]; q < instance.itemOrderStart[item + 1]; q++) {
+                    int other = instance.itemOrders[q];
+                    if (orderStamp[other] != stampValue && !evaluator.hasOrder(other)) {
+                        orderStamp[other] = stampValue;
+                        candidates[n++] = ((long) -statistics.orderUnits[other] << 32) | other;
+                    }
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, n);
+        for (int c = 0; c < n; c++) {
+            int order = (int) candidates[c];
+            if (evaluator.orderFits(order)) {
+                evaluator.addOrder(order);
+                added[addedCount++] = order;
+            }
+        }
+
+        if (evaluator.isFeasible() && evaluator.objective() > objective + 1e-9) {
+            return true;
+        }
+
+        // undo
+        for (int c = 0; c < addedCount; c++) {
+            evaluator.removeOrder(added[c]);
+        }
+        evaluator.addAisle(aisle);
+        for (int d = 0; d < droppedCount; d++) {
+            evaluator.addOrder(dropped[d]);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Aisles ranked once by a score (highest first, ties by aisle id), so the best k aisles for any k
+ * are a prefix of the ranking.
+ */
+public class AisleRanking {
+
+    @FunctionalInterface
+    public interface AisleScore {
+        double score(int aisle);
+    }
+
+    // capacity that can actually be used, each item capped by its total demand
+    public static AisleScore usefulCapacity(InstanceData instance, InstanceStatistics statistics) {
+        return aisle -> {
+            long useful = 0;
+            for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+                useful += Math.min(instance.aisleQuantities[p], statistics.itemDemand[instance.aisleItems[p]]);
+            }
+            return useful;
+        };
+    }
+
+    // number of distinct demanded items stocked by the aisle
+    public static AisleScore demandedItems(InstanceData instance, InstanceStatistics statistics) {
+        return aisle -> {
+            int count = 0;
+            for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+                if (statistics.itemDemand[instance.aisleItems[p]] > 0) count++;
+            }
+            return count;
+        };
+    }
+
+    private final int[] ranked; // aisle ids, best first
+
+    public AisleRanking(int nAisles, AisleScore score) {
+        double[] scores = new double[nAisles];
+        Integer[] ids = new Integer[nAisles];
+        for (int a = 0; a < nAisles; a++) {
+            scores[a] = score.score(a);
+            ids[a] = a;
+        }
+        Arrays.sort(ids, (a, b) -> {
+            int compare = Double.compare(scores[b], scores[a]);
+            return compare != 0 ? compare : Integer.compare(a, b);
+        });
+        this.ranked = new int[nAisles];
+        for (int r = 0; r < nAisles; r++) {
+            ranked[r] = ids[r];
+        }
+    }
+
+    /**
+     * Ranking from an already sorted order (e.g. InstanceStatistics.aislesByCapacity)
+     */
+    public AisleRanking(int[] ranked) {
+        this.ranked = ranked.clone();
+    }
+
+    public int size() {
+        return ranked.length;
+    }
+
+    // aisle at position r (0 = best)
+    public int aisle(int r) {
+        return ranked[r];
+    }
+
+    public Set<Integer> topK(int k) {
+        int n = Math.min(k, ranked.length);
+        Set<Integer> selected = new HashSet<>(2 * n);
+        for (int r = 0; r < n; r++) {
+            selected.add(ranked[r]);
+        }
+        return selected;
+    }
+}
@@ -7,6 +7,7 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -19,6 +20,8 @@ public class Challenge {
     private int nItems;
     private int waveSizeLB;
     private int waveSizeUB;
+    private InstanceData instance;
+    private InstanceStatistics statistics; // totals of the instance, when the reader computed them
 
     public void readInput(String inputFilePath) {
         try {
@@ -53,6 +56,64 @@ public class Challenge {
         }
     }
 
+    /**
+     * Memory-mapped reading: parses the file bytes directly into CSR arrays (no Strings, no boxed maps)
+     */
+    public void readInputMapped(String inputFilePath) {
+        try {
+            instance = MappedInstanceParser.parse(Path.of(inputFilePath));
+            nItems = instance.nItems;
+            waveSizeLB = instance.waveSizeLB;
+            waveSizeUB = instance.waveSizeUB;
+        } catch (IOException e) {
+            System.err.println("Error reading input from " + inputFilePath);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Cached reading: loads the binary precompiled instance if it matches the file content,
+     * otherwise parses the text file and writes the binary next to it
+     */
+    public void readInputCached(String inputFilePath) {
+        try {
+            instance = InstanceCache.load(Path.of(inputFilePath));
+            nItems = instance.nItems;
+            waveSizeLB = instance.waveSizeLB;
+            waveSizeUB = instance.waveSizeUB;
+        } catch (IOException e) {
+            System.err.println("Error reading input from " + inputFilePath);
+            e.printStackTrace();
+        }
+    }
+
+    // totals of the loaded instance, computed here unless the reader already did
+    private InstanceStatistics statistics() {
+        if (statistics == null) {
+            statistics = new InstanceStatistics(instance);
+        }
+        return statistics;
+    }
+
+    /**
+     * Parallel reading: chunked parsing on a fork-join pool, building the item index and the
+     * order/aisle totals while parsing (prints per-stage timings)
+     */
+    public void readInputParallel(String inputFilePath) {
+        try {
+            ParallelInstanceLoader loader = new ParallelInstanceLoader();
+            instance = loader.load(Path.of(inputFilePath));
+            statistics = new InstanceStatistics(instance, loader.getOrderUnits(), loader.getAisleCapacity());
+            loader.printTimings();
+            nItems = instance.nItems;
+            waveSizeLB = instance.waveSizeLB;
+            waveSizeUB = instance.waveSizeUB;
+        } catch (IOException e) {
+            System.err.println("Error reading input from " + inputFilePath);
+            e.printStackTrace();
+        }
+    }
+
     private void readItemQuantityPairs(BufferedReader reader, int nLines, List<Map<Integer, Integer>> orders) throws IOException {
         String line;
         for (int orderIndex = 0; orderIndex < nLines; orderIndex++) {
@@ -125,10 +186,21 @@ public class Challenge {
         }
 
         Challenge challenge = new Challenge();
-        challenge.readInput(args[0]);
-        var challengeSolver = new ChallengeSolver(
-                challenge.orders, challenge.aisles, challenge.nItems, challenge.waveSizeLB, challenge.waveSizeUB);
-        ChallengeSolution challengeSolution = challengeSolver.solve(stopWatch);
+        // instance reader (java -Dsbpo.loader=mapped|cached|parallel), memory-mapped parser by default
+        String loader = System.getProperty("sbpo.loader", "mapped");
+        switch (loader) {
+            case "cached" -> challenge.readInputCached(args[0]);
+            case "parallel" -> challenge.readInputParallel(args[0]);
+            case "mapped" -> challenge.readInputMapped(args[0]);
+            default -> throw new IllegalArgumentException("Unknown sbpo.loader: " + loader);
+        }
+        // presolve: solve the reduced instance and map the solution back to the original indices
+        InstancePresolve presolve = new InstancePresolve(challenge.instance, challenge.statistics());
+        presolve.printReport();
+        var challengeSolver = presolve.instance() == challenge.instance
+            ? new ChallengeSolver(challenge.instance, challenge.statistics())
+            : new ChallengeSolver(presolve.instance());
+        ChallengeSolution challengeSolution = presolve.restore(challengeSolver.solve(stopWatch));
 
         challenge.writeOutput(challengeSolution, args[1]);
     }
@@ -1,6 +1,151 @@
 package org.sbpo2025.challenge;
 
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
-public record ChallengeSolution(Set<Integer> orders, Set<Integer> aisles) {
+/**
+ * Immutable solution backed by two BitSets (selected orders, visited aisles).
+ * orders() and aisles() are read-only Set views, meant for the output boundary and for the
+ * existing Set-based callers; hot paths should iterate with nextOrder() / nextAisle().
+ */
+public final class ChallengeSolution {
+    private final BitSet orderBits;
+    private final BitSet aisleBits;
+    private final Set<Integer> orders;
+    private final Set<Integer> aisles;
+
+    private ChallengeSolution(BitSet orderBits, BitSet aisleBits) {
+        this.orderBits = orderBits;
+        this.aisleBits = aisleBits;
+        this.orders = new BitSetView(orderBits);
+        this.aisles = new BitSetView(aisleBits);
+    }
+
+    public ChallengeSolution(Set<Integer> orders, Set<Integer> aisles) {
+        this(toBits(orders), toBits(aisles));
+    }
+
+    /**
+     * Snapshot of the given working bitsets (copied, so the caller can keep mutating them)
+     */
+    public static ChallengeSolution of(BitSet orderBits, BitSet aisleBits) {
+        return new ChallengeSolution((BitSet) orderBits.clone(), (BitSet) aisleBits.clone());
+    }
+
+    public Set<Integer> orders() {
+        return orders;
+    }
+
+    public Set<Integer> aisles() {
+        return aisles;
+    }
+
+    /**
+     * @return a mutable copy of the selected orders
+     */
+    public BitSet orderBits() {
+        return (BitSet) orderBits.clone();
+    }
+
+    /**
+     * @return a mutable copy of the visited aisles
+     */
+    public BitSet aisleBits() {
+        return (BitSet) aisleBits.clone();
+    }
+
+    // read-only iteration helpers, no copy
+    public int nextOrder(int from) {
+        return orderBits.nextSetBit(from);
+    }
+
+    public int nextAisle(int from) {
+        return aisleBits.nextSetBit(from);
+    }
+
+    public boolean hasOrder(int order) {
+        return orderBits.get(order);
+    }
+
+    public boolean hasAisle(int aisle) {
+        return aisleBits.get(aisle);
+    }
+
+    public int ordersCount() {
+        return orders.size();
+    }
+
+    public int aislesCount() {
+        return aisles.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChallengeSolution other)) return false;
+        return orderBits.equals(other.orderBits) && aisleBits.equals(other.aisleBits);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * orderBits.hashCode() + aisleBits.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ChallengeSolution[orders=" + orderBits + ", aisles=" + aisleBits + "]";
+    }
+
+    private static BitSet toBits(Set<Integer> set) {
+        BitSet bits = new BitSet();
+        if (set != null) {
+            for (int id : set) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    private static final class BitSetView extends AbstractSet<Integer> {
+        private final BitSet bits;
+        private final int size;
+
+        BitSetView(BitSet bits) {
+            this.bits = bits;
+            this.size = bits.cardinality();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer i && i >= 0 && bits.get(i);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int next = bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next < 0) throw new NoSuchElementException();
+                    int current = next;
+                    next = bits.nextSetBit(current + 1);
+                    return current;
+                }
+            };
+        }
+    }
 }
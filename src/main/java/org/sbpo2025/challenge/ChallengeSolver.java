@@ -3,7 +3,13 @@ package org.sbpo2025.challenge;
 import org.apache.commons.lang3.time.StopWatch;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -11,45 +17,69 @@ public class ChallengeSolver {
     private final long MAX_RUNTIME = 599000; // milliseconds; 10 minutes - 1 second
     // private final long MAX_RUNTIME = 5990; // para testear timeout
 
-    protected List<Map<Integer, Integer>> orders;
-    protected List<Map<Integer, Integer>> aisles;
+    protected InstanceData instance;
+    protected InstanceStatistics statistics;
+    protected AisleRanking aisleRanking; // best k aisles = first k of the ranking
+    protected AisleCountBounds aisleCountBounds; // cheap upper bound on the objective for each k
+    protected int greedyThreads = Runtime.getRuntime().availableProcessors(); // workers of solveParallelRandomGreedy
+    protected OrderSelector orderSelector; // greedy order selection buffers, reused by every evaluation
+    protected final BitSet greedyAisles = new BitSet(); // aisles of the greedy evaluation, reused
+    protected final Random greedyRandom = new Random(12); // reseeded on every default-seed evaluation
+    protected boolean useLpBounds = false; // check the LP relaxation of problem1a (GLOP) before each exact solve
+    protected int alnsMaxStall = 2000; // ALNS iterations without a new best solution before stopping
+    protected long alnsMipTimeLimit = 2; // seconds of each problem2c repair in the ALNS
+    protected long postOptimizationTime = 2; // seconds kept for solveAisleDropRepair at the end of solve()
+    protected long componentKnapsackWords = 1L << 23; // longs (64 MB) allowed for the solveByComponents knapsack layers
     protected List<Item> items;
+    protected int nOrders;
+    protected int nAisles;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
     protected boolean enableOutput = false; // Enable or disable solver output
     protected Solving solving;
-
-    public ChallengeSolver(
-        List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
-        this.orders = orders;
-        this.aisles = aisles;
-        this.nItems = nItems;
-        this.waveSizeLB = waveSizeLB;
-        this.waveSizeUB = waveSizeUB;
+    protected int minimumAislesLowerBound = 0; // lower bound on the aisles of any feasible solution (bounds / problem1c), 0 if unknown
+    protected boolean minimumAislesExact = false; // problem1c solved to optimality
+
+    public ChallengeSolver(InstanceData instance, InstanceStatistics statistics) {
+        this.instance = instance;
+        this.statistics = statistics;
+        this.aisleRanking = aisleRanking(instance, statistics);
+        this.aisleCountBounds = new AisleCountBounds(instance, statistics);
+        this.nOrders = instance.nOrders;
+        this.nAisles = instance.nAisles;
+        this.nItems = instance.nItems;
+        this.waveSizeLB = instance.waveSizeLB;
+        this.waveSizeUB = instance.waveSizeUB;
         this.solving = new Solving(this);
+        this.orderSelector = new OrderSelector(instance, statistics);
 
-        this.items = new ArrayList<>();
+        // items are views over the transposed index of the instance
+        this.items = new ArrayList<>(nItems);
         for (int i = 0; i < nItems; i++) {
-            this.items.add(new Item(i, new HashMap<>(), new HashMap<>()));
-        }
-        for (int orderId = 0; orderId < orders.size(); orderId++) {
-            Map<Integer, Integer> order = orders.get(orderId);
-            for (Map.Entry<Integer, Integer> entry : order.entrySet()) {
-                int itemId = entry.getKey();
-                int quantity = entry.getValue();
-                this.items.get(itemId).addOrder(orderId, quantity);
-            }
-        }
-        for (int aisleId = 0; aisleId < aisles.size(); aisleId++) {
-            Map<Integer, Integer> aisle = aisles.get(aisleId);
-            for (Map.Entry<Integer, Integer> entry : aisle.entrySet()) {
-                int itemId = entry.getKey();
-                int capacity = entry.getValue();
-                this.items.get(itemId).addAisle(aisleId, capacity);
-            }
+            this.items.add(new Item(i, instance));
         }
+    }
+    /*
+     * Orden de los pasillos del barrido y de los subconjuntos top-k (java -Dsbpo.aisleScore=capacity|useful|demanded):
+     * capacidad total (por defecto), capacidad util (cada item acotado por su demanda) o items demandados
+     */
+    protected static AisleRanking aisleRanking(InstanceData instance, InstanceStatistics statistics) {
+        String score = System.getProperty("sbpo.aisleScore", "capacity");
+        return switch (score) {
+            case "capacity" -> new AisleRanking(statistics.aislesByCapacity);
+            case "useful" -> new AisleRanking(instance.nAisles, AisleRanking.usefulCapacity(instance, statistics));
+            case "demanded" -> new AisleRanking(instance.nAisles, AisleRanking.demandedItems(instance, statistics));
+            default -> throw new IllegalArgumentException("Unknown sbpo.aisleScore: " + score);
+        };
+    }
 
+    public ChallengeSolver(InstanceData instance) {
+        this(instance, new InstanceStatistics(instance));
+    }
+    public ChallengeSolver(
+        List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
+        this(InstanceData.fromMaps(orders, aisles, nItems, waveSizeLB, waveSizeUB));
     }
 
     public ChallengeSolution solve(StopWatch stopWatch) {
@@ -58,16 +88,16 @@ public class ChallengeSolver {
         PartialResult bestSolution = new PartialResult(null, 0);
         PartialResult nullSolution = new PartialResult(null, 0);
 
-        double[] orderStats = calculateMeanOrderSize(IntStream.range(0, orders.size()).boxed().collect(Collectors.toSet()));
+        double[] orderStats = calculateMeanOrderSize(IntStream.range(0, nOrders).boxed().collect(Collectors.toSet()));
         double meanOrderSize = orderStats[0];
         double meanOrderItems = orderStats[1];
-        double[] aisleStats = calculateMeanAisleCapacity(IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet()));
+        double[] aisleStats = calculateMeanAisleCapacity(IntStream.range(0, nAisles).boxed().collect(Collectors.toSet()));
         double meanAisleCapacity = aisleStats[0];
         double meanAisleItems = aisleStats[1];
 
         // problem parameters
-        System.out.println("Orders number: " + orders.size());
-        System.out.println("Aisles number: " + aisles.size());
+        System.out.println("Orders number: " + nOrders);
+        System.out.println("Aisles number: " + nAisles);
         System.out.println("Items number: " + nItems);
         System.out.println("Wave size bounds: [" + waveSizeLB + ", " + waveSizeUB + "]");
         System.out.println("Mean order size: " + meanOrderSize);
@@ -134,6 +164,10 @@ public class ChallengeSolver {
         // int maxIterations = 10;
         // bestSolution = solveRandomGreedySelection(bestSolution, stopWatch, maxIterations);
         // // -------------------------------------------------------------------------------
+
+        // // Metodo 6.2 --- greedy aleatorio multi-arranque en paralelo (un hilo por nucleo) hasta el limite de tiempo
+        // bestSolution = solveParallelRandomGreedy(bestSolution, stopWatch, 60);
+        // // -------------------------------------------------------------------------------
         
         // // Metodo 7 -- usar preseleccion de pasillos (fija) y de ordenes (single-aisle) para poder agregar ordenes multi-pasillo
         // // -> no sirve para instancias con solo ordenes single-aisle
@@ -164,7 +198,7 @@ public class ChallengeSolver {
 
         // // Metodo 8.1 --- algoritmo greedy para seleccionar ordenes sobre un subconjunto de pasillos
         // // desde 1 pasillo hacia arriba
-        // for (int k = 1; k <= aisles.size(); k++) {
+        // for (int k = 1; k <= nAisles; k++) {
         //     if (bestSolution.objValue() >= waveSizeUB/k) {
         //         System.out.println("Current best solution with value " + bestSolution.objValue() + " is already better than the maximum possible for k >= " + k);
         //         break;
@@ -194,14 +228,30 @@ public class ChallengeSolver {
 
         // // Metodo 9 --- algoritmo de búsqueda tabú
         // int K = bestAislesNumber; // número de pasillos a considerar
-        // int p = (int)Math.ceil(K*0.3); // número de elementos a intercambiar
-        // // p = 1;
-        // int n = 3*K; // tamaño del vecindario
         // int maxIterations = 20;
-        // PartialResult newSolution = tabuSearch(nullSolution, stopWatch, K, p, n, maxIterations);
+        // PartialResult newSolution = tabuSearch(nullSolution, stopWatch, K, maxIterations);
         // bestSolution = solveWithAisleSubset(bestSolution, stopWatch, newSolution.partialSolution().aisles());
         // // -------------------------------------------------------------------------------
 
+        // // Metodo 9.1 --- busqueda tabu con intercambios evaluados por holgura (incremental, en paralelo)
+        // // -> parte de la mejor solucion y mantiene su cantidad de pasillos
+        // bestSolution = solveSuperAisleSweep(bestSolution, stopWatch, new HashMap<>());
+        // bestSolution = solveTabuSearch(bestSolution, stopWatch, 60);
+        // bestSolution = solveWithAisleSubset(bestSolution, stopWatch, bestSolution.partialSolution().aisles());
+        // // -------------------------------------------------------------------------------
+
+        // // Metodo 10 --- modelo unico con objetivo ratio linealizado (alternativa exacta al barrido en k)
+        // // -> comparar con solveWithFixedAisles usando RatioBenchmark
+        // bestSolution = solveSuperAisleSweep(bestSolution, stopWatch, new HashMap<>());
+        // bestSolution = solveWithRatioModel(bestSolution, stopWatch, getRemainingTime(stopWatch));
+        // // -------------------------------------------------------------------------------
+
+        // // Metodo 11 --- descomposicion por componentes conexas (ordenes - items - pasillos)
+        // // -> solo aplica si la instancia se separa en varias componentes
+        // bestSolution = solveSuperAisleSweep(bestSolution, stopWatch, new HashMap<>());
+        // bestSolution = solveByComponents(bestSolution, stopWatch, getRemainingTime(stopWatch) / 2);
+        // // -------------------------------------------------------------------------------
+
         // bestSolution = solveWithFixedAisles(bestSolution, stopWatch, 10,10);
 
         // #########################################################################################
@@ -211,37 +261,53 @@ public class ChallengeSolver {
         int minimumAisles = 1; // minimo por defecto
         Map<Integer, Double> candidateAisleNumbers = new HashMap<>();
 
-        boolean feasibleSolutionFound = false;
-        for (int k = 1; k <= aisles.size(); k++) {
-            PartialResult newSolution = solveSuperAisleGreedySelection(nullSolution, stopWatch, k);
-            candidateAisleNumbers.put(k, newSolution.objValue());
-            // bestSolution = solveSuperAisleGreedySelection(bestSolution, stopWatch, k);
-            if (newSolution.partialSolution() != null) {
-                if (!feasibleSolutionFound) {
-                    minimumAisles = k; // actualizar minimo si es la primera factible
-                    feasibleSolutionFound = true;
-                }
-                if (newSolution.objValue() > bestSolution.objValue()) {
-                    bestSolution = newSolution;
-                }
-            }
-            if (bestSolution.objValue() >= waveSizeUB/(k+1)) {
-                System.out.println("Current best solution with value " + bestSolution.objValue() + " is already better than the maximum possible for k >= " + (k+1));
+        // barrido incremental: la solucion de k pasillos se extiende a k+1
+        bestSolution = solveSuperAisleSweep(bestSolution, stopWatch, candidateAisleNumbers);
+        for (int k = 1; k <= nAisles; k++) {
+            if (candidateAisleNumbers.getOrDefault(k, 0.0) > 0) {
+                minimumAisles = k; // primera cantidad factible
                 break;
             }
         }
         bestSolution = solveWithAisleSubset(bestSolution, stopWatch, bestSolution.partialSolution().aisles());
         candidateAisleNumbers.put(bestSolution.partialSolution().aisles().size(), bestSolution.objValue());
+
+        // cotas por cantidad de pasillos: descartar k que no pueden mejorar, y terminar si ya es optima
+        minimumAislesLowerBound = Math.max(minimumAislesLowerBound, aisleCountBounds.minimumAisles());
+        System.out.println(String.format("Upper bound on the objective = %.4f, minimum aisles = %d", aisleCountBounds.upperBound(), aisleCountBounds.minimumAisles()));
+        if (bestSolution.objValue() >= aisleCountBounds.upperBound() - 1e-9) {
+            System.out.println("\nBest solution found with value " + bestSolution.objValue() + " (proven optimal by the aisle count bounds)");
+            return bestSolution.partialSolution();
+        }
+
+        // 1.1) componentes conexas: resolver cada una por separado y combinarlas (hasta un decimo del tiempo)
+        bestSolution = solveByComponents(bestSolution, stopWatch, getRemainingTime(stopWatch) / 10);
+        if (bestSolution.objValue() >= aisleCountBounds.upperBound() - 1e-9) {
+            System.out.println("\nBest solution found with value " + bestSolution.objValue() + " (proven optimal by the aisle count bounds)");
+            return bestSolution.partialSolution();
+        }
+
+        // 2) Dinkelbach sobre el modelo completo, partiendo del ratio del greedy (hasta la mitad del tiempo)
+        bestSolution = solveDinkelbach(bestSolution, stopWatch, getRemainingTime(stopWatch) / 2, 50);
+        if (bestSolution.partialSolution() != null && bestSolution.gap() == 0) {
+            System.out.println("\nBest solution found with value " + bestSolution.objValue() + " (proven optimal)");
+            System.out.println("Final remaining time: " + getRemainingTime(stopWatch) + " seconds");
+            return bestSolution.partialSolution();
+        }
         
-        // 2) metodo exacto para instancias pequeñas
+        // 3) metodo exacto para instancias pequeñas
         boolean exactMinimumAisles = false;
-        if (orders.size() <= 15000 && nItems <= 10000) {
+        if (nOrders <= 15000 && nItems <= 10000) {
             System.out.println("\n-> using exact method for small instances");
             // boolean exactMinimumAisles = false;
             bestSolution = solveMinimumFeasibleAisles(bestSolution, stopWatch, 60); // se limita en tiempo
             if (bestSolution.partialSolution() == null) {
                 System.out.println("No feasible solution found, stopping.");
                 // return null; // No feasible solution found (for the whole problem) or timeout
+            } else if (!minimumAislesExact) {
+                // limite de tiempo: solo el bound de problem1c, descartar k menores
+                final int lowerBound = minimumAislesLowerBound;
+                candidateAisleNumbers.entrySet().removeIf(entry -> entry.getKey() < lowerBound);
             } else {
                 minimumAisles = bestSolution.partialSolution().aisles().size();
                 candidateAisleNumbers.put(minimumAisles, bestSolution.objValue());
@@ -251,11 +317,17 @@ public class ChallengeSolver {
             }
         }
 
+        final double bestValue = bestSolution.objValue();
+        candidateAisleNumbers.entrySet().removeIf(entry -> !aisleCountBounds.canImprove(entry.getKey(), bestValue));
+
         if (!exactMinimumAisles) {
-            for (int k = 1; k < minimumAisles; k++) {
+            int firstAisles = Math.max(1, minimumAislesLowerBound);
+            for (int k = firstAisles; k < minimumAisles; k++) {
                 candidateAisleNumbers.put(k, 0.0);
             }
-            candidateAisleNumbers.put(minimumAisles-1, bestSolution.objValue()); // probar factibilidad con uno pasillo menos
+            if (minimumAisles - 1 >= firstAisles) {
+                candidateAisleNumbers.put(minimumAisles-1, bestSolution.objValue()); // probar factibilidad con uno pasillo menos
+            }
         }
 
         candidateAisleNumbers = candidateAisleNumbers.entrySet()
@@ -278,7 +350,7 @@ public class ChallengeSolver {
         for (Integer key : candidateAisleNumbers.keySet()) System.out.println("\n-> Key: " + key + ", Value: " + candidateAisleNumbers.get(key));
         
         if (exactMinimumAisles) {
-            bestSolution = solveWithFixedAisles(bestSolution, stopWatch, minimumAisles, aisles.size(), 5); // metodo exacto iterando sobre nAisles
+            bestSolution = solveWithFixedAisles(bestSolution, stopWatch, minimumAisles, nAisles, 5); // metodo exacto iterando sobre nAisles
         } else {
             for (Integer key : candidateAisleNumbers.keySet()) {
                 if (getRemainingTime(stopWatch) < 1) {
@@ -286,6 +358,9 @@ public class ChallengeSolver {
                     break;
                 }
                 System.out.println("\n-> Key: " + key + ", Value: " + candidateAisleNumbers.get(key));
+                if (!aisleCountBounds.canImprove(key, bestSolution.objValue())) {
+                    continue; // la cota de key pasillos no supera la mejor solucion
+                }
                 if (meanOrderItems > 1) {
                     bestSolution = solveWithFixedAisles(bestSolution, stopWatch, key, key); // metodo exacto para key pasillos
                 } else {
@@ -295,6 +370,15 @@ public class ChallengeSolver {
                 }
             }
         }
+
+        // 4) ALNS sobre la mejor solucion hasta el limite de tiempo (o hasta estancarse o alcanzar la cota)
+        // 5) post-optimizacion: quitar pasillos poco usados y rellenar con el resto
+        if (bestSolution.objValue() >= aisleCountBounds.upperBound() - 1e-9) {
+            System.out.println("\nBest solution found with value " + bestSolution.objValue() + " (proven optimal by the aisle count bounds)");
+        } else {
+            bestSolution = solveLargeNeighbourhoodSearch(bestSolution, stopWatch, getRemainingTime(stopWatch) - postOptimizationTime);
+            bestSolution = solveAisleDropRepair(bestSolution, stopWatch, postOptimizationTime);
+        }
         // fin #########################################################################
         
     
@@ -335,15 +419,26 @@ public class ChallengeSolver {
             } // stop iteration if no time left
             System.out.println("Remaining time: " + getRemainingTime(stopWatch) + " seconds");
 
-            if (waveSizeUB/k <= bestSolution.objValue()) {
+            if (aisleCountBounds.upperBoundFrom(k) <= bestSolution.objValue()) {
                 // stopping condition due to optimality
                 System.out.println("Current best solution with value " + bestSolution.objValue() + " is already better than the maximum possible for k >= " + k);
                 break;
             }
+            if (!aisleCountBounds.canImprove(k, bestSolution.objValue())) {
+                System.out.println(String.format("Skipping k = %d, upper bound %.4f", k, aisleCountBounds.upperBound(k)));
+                continue;
+            }
+            if (useLpBounds) {
+                double lpBound = solving.problem1aLPBound(k, getRemainingTime(stopWatch));
+                if (lpBound <= bestSolution.objValue() + 1e-9) {
+                    System.out.println(String.format("Skipping k = %d, LP bound %.4f", k, lpBound));
+                    continue;
+                }
+            }
 
             // solve
             System.out.println("\nMaximizing picked items for number of aisles k = " + k);
-            PartialResult partialResult = solving.problem1a(k, getRemainingTime(stopWatch));
+            PartialResult partialResult = solving.problem1aPersistent(k, getRemainingTime(stopWatch), bestSolution.partialSolution());
             // PartialResult partialResult = solving.problem1aCP(k, getRemainingTime(stopWatch));
     
             if (partialResult.partialSolution() == null) {
@@ -358,13 +453,18 @@ public class ChallengeSolver {
             System.out.println("Objective value = " + partialResult.objValue());
             double usedCapacity = (1 - totalCapacityLeft(partialResult.partialSolution())) * 100.0;
             System.out.println(String.format("Total capacity used = %.2f%%", usedCapacity));
+            if (partialResult.gap() > 0) {
+                System.out.println(String.format("Not proven optimal for k = %d, bound = %.4f, gap = %.2f%%", k, partialResult.bound(), partialResult.gap() * 100.0));
+            }
 
-            if (partialResult.objValue() >= prevObj) {
+            // con limite de tiempo se compara el bound: el optimo para k puede llegar hasta ahi
+            double kValue = partialResult.bound();
+            if (kValue >= prevObj) {
                 iterationsWithoutImprovement = 0;
             } else {
                 iterationsWithoutImprovement++;
             }
-            prevObj = partialResult.objValue();
+            prevObj = kValue;
 
             // update best solution
             if (partialResult.objValue() > bestSolution.objValue()) {
@@ -378,16 +478,320 @@ public class ChallengeSolver {
 
         return bestSolution;
     }
+    /*
+     * Dinkelbach: resolver max units - lambda * aisles y actualizar lambda con el ratio encontrado,
+     * hasta que el bound de F(lambda) sea <= 0 (lambda optimo) o se agote el tiempo.
+     * Converge en pocas iteraciones sin importar la cantidad de pasillos.
+     * lambda solo avanza con soluciones aceptadas por isSolutionFeasible, asi que al converger
+     * bound == objValue (gap 0); si no, bound = lambda + bound de F.
+     */
+    protected PartialResult solveDinkelbach(PartialResult bestSolution, StopWatch stopWatch, long timeLimit, int maxIterations) {
+        System.out.println("\n>> solveDinkelbach");
+
+        long deadline = Math.max(0, getRemainingTime(stopWatch) - timeLimit); // remaining time at which to stop
+        long iterationLimit = Math.max(1, timeLimit / 5); // cada MIP con limite, para poder iterar sobre lambda
+        double lambda = bestSolution.partialSolution() != null ? bestSolution.objValue() : 0;
+        double ratioBound = Double.POSITIVE_INFINITY;
+
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            long available = Math.min(iterationLimit, getRemainingTime(stopWatch) - deadline);
+            if (available < 1) {
+                System.out.println("Time limit reached, stopping Dinkelbach iterations.");
+                break;
+            }
+
+            PartialResult parametric = solving.problemDinkelbach(lambda, available, bestSolution.partialSolution());
+            if (parametric.partialSolution() == null) {
+                System.out.println("No feasible solution found for lambda = " + lambda);
+                break;
+            }
+            ratioBound = lambda + Math.max(0, parametric.bound()); // at least one aisle: r* <= lambda + F*(lambda)
+
+            double ratio = computeObjectiveFunction(parametric.partialSolution());
+            System.out.println(String.format("Iteration %d: lambda = %.4f, F = %.4f (bound %.4f), ratio = %.4f",
+                iteration, lambda, parametric.objValue(), parametric.bound(), ratio));
+
+            boolean accepted = ratio > bestSolution.objValue() && isSolutionFeasible(parametric.partialSolution());
+            if (accepted) {
+                bestSolution = new PartialResult(parametric.partialSolution(), ratio);
+            }
+            if (parametric.bound() <= 1e-6) {
+                // solo se probo r* <= lambda: es optimo si lambda es el ratio de una solucion aceptada
+                System.out.println("Dinkelbach converged, optimal ratio <= " + lambda);
+                return new PartialResult(bestSolution.partialSolution(), bestSolution.objValue(), Math.max(bestSolution.objValue(), lambda));
+            }
+            if (!accepted || ratio <= lambda + 1e-9) {
+                break; // sin progreso (limite de tiempo del MIP) o solucion rechazada
+            }
+            lambda = ratio; // lambda siempre es el ratio de una solucion aceptada
+        }
+
+        if (bestSolution.partialSolution() == null) {
+            return bestSolution;
+        }
+        return new PartialResult(bestSolution.partialSolution(), bestSolution.objValue(), Math.max(bestSolution.objValue(), ratioBound));
+    }
+    protected PartialResult solveDinkelbach(PartialResult bestSolution, StopWatch stopWatch) {
+        return solveDinkelbach(bestSolution, stopWatch, getRemainingTime(stopWatch), 50);
+    }
+
+    /*
+     * Descomposicion por componentes conexas del grafo ordenes - items - pasillos: cada componente
+     * se resuelve por separado y en paralelo (problem1a para k = 1, 2, ... pasillos, hasta cubrir su
+     * demanda o agotar el tiempo) y las partes se combinan con una mochila exacta sobre los estados
+     * (pasillos totales, unidades totales <= UB): cada componente aporta una de las soluciones de su
+     * tabla (una por k) o nada, y se elige el mejor ratio con unidades >= LB entre esas combinaciones.
+     * Una combinacion no supera el mejor ratio de sus partes, sirve cuando una componente sola no
+     * alcanza el LB. Una componente con mas de la mitad de las ordenes no se recorre en k (es casi el
+     * problema completo, que resuelven las demas etapas): aporta solo la parte de la mejor solucion.
+     * La mochila guarda una capa de UB/64 + 1 longs por (componente, K) para la reconstruccion; si
+     * componentes x K x palabras supera componentKnapsackWords la etapa se omite antes de resolver.
+     */
+    protected PartialResult solveByComponents(PartialResult bestSolution, StopWatch stopWatch, long timeLimit) {
+        System.out.println("\n>> solveByComponents");
+
+        ItemComponents components = new ItemComponents(instance, items);
+        System.out.println("Connected components: " + components.size());
+        if (components.size() <= 1) {
+            return bestSolution; // nothing to decompose
+        }
+
+        // cota de la memoria de la mochila: las componentes no suman mas de nAisles pasillos
+        int words = (waveSizeUB >> 6) + 1;
+        long layers = (long) (components.size() + 1) * (maxKnapsackAisles(nAisles, bestSolution) + 1);
+        if (layers * words > componentKnapsackWords) {
+            System.out.println("Components knapsack needs " + layers * words + " words (limit " + componentKnapsackWords + "), skipping");
+            return bestSolution;
+        }
+
+        long deadline = deadline(stopWatch, timeLimit);
+        long solveLimit = Math.max(1, timeLimit / 10); // cada problem1a con limite, para recorrer varios k
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(components.size(), Runtime.getRuntime().availableProcessors()));
+        List<Future<PartialResult[]>> futures = new ArrayList<>(Collections.nCopies(components.size(), null));
+        for (int c = components.size() - 1; c >= 0; c--) { // smallest first, so they finish before the deadline
+            ItemComponents.Component component = components.get(c);
+            if (2 * component.instance.nOrders > nOrders) {
+                futures.set(c, CompletableFuture.completedFuture(incumbentTable(component, bestSolution)));
+            } else {
+                futures.set(c, pool.submit(() -> solveComponent(component, deadline, solveLimit)));
+            }
+        }
+        PartialResult[][] tables = new PartialResult[components.size()][];
+        try {
+            for (int c = 0; c < components.size(); c++) {
+                tables[c] = futures.get(c).get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("Component solve failed: " + e.getMessage());
+            pool.shutdownNow();
+            return bestSolution;
+        }
+        pool.shutdown();
+
+        // mochila exacta sobre estados alcanzables: reachable[c][K] = bits de los totales de unidades (<= UB)
+        // que suman K pasillos con las primeras c componentes (cada una aporta una entrada de su tabla o nada);
+        // con mas de UB / mejor pasillos no se puede mejorar la mejor solucion
+        int totalAisles = 0;
+        for (PartialResult[] table : tables) {
+            totalAisles += table.length - 1;
+        }
+        int maxK = maxKnapsackAisles(totalAisles, bestSolution);
+        long[][][] reachable = new long[components.size() + 1][maxK + 1][];
+        reachable[0][0] = new long[words];
+        reachable[0][0][0] = 1L; // 0 unidades con 0 pasillos
+        for (int c = 0; c < components.size(); c++) {
+            for (int K = 0; K <= maxK; K++) {
+                long[] source = reachable[c][K];
+                if (source == null) {
+                    continue;
+                }
+                orShifted(reachable[c + 1], K, source, 0, words); // componente sin usar
+                for (int k = 1; k < tables[c].length && K + k <= maxK; k++) {
+                    if (tables[c][k] != null) {
+                        orShifted(reachable[c + 1], K + k, source, (int) tables[c][k].objValue(), words);
+                    }
+                }
+            }
+        }
+
+        int bestK = 0;
+        int bestUnits = 0;
+        for (int K = 1; K <= maxK; K++) {
+            long[] totals = reachable[components.size()][K];
+            int u = totals == null ? -1 : highestBit(totals, waveSizeUB);
+            if (u >= waveSizeLB && (bestK == 0 || (double) u / K > (double) bestUnits / bestK)) {
+                bestK = K;
+                bestUnits = u;
+            }
+        }
+        if (bestK == 0) {
+            System.out.println("No feasible combination of components");
+            return bestSolution;
+        }
+
+        // reconstruir la combinacion en indices originales, de la ultima componente a la primera
+        BitSet orders = new BitSet(nOrders);
+        BitSet aisles = new BitSet(nAisles);
+        int used = 0;
+        for (int c = components.size() - 1, K = bestK, u = bestUnits; c >= 0; c--) {
+            if (hasBit(reachable[c][K], u)) {
+                continue; // componente sin usar
+            }
+            for (int k = 1; k < tables[c].length && k <= K; k++) {
+                if (tables[c][k] == null) {
+                    continue;
+                }
+                int units = (int) tables[c][k].objValue();
+                if (units <= u && hasBit(reachable[c][K - k], u - units)) {
+                    components.get(c).restore(tables[c][k].partialSolution(), orders, aisles);
+                    used++;
+                    K -= k;
+                    u -= units;
+                    break;
+                }
+            }
+        }
+        ChallengeSolution solution = ChallengeSolution.of(orders, aisles);
+        double objValue = (double) solving.waveSize(solution) / aisles.cardinality();
+        System.out.println(String.format("Components combination: %d components, %d aisles, objective %.4f", used, aisles.cardinality(), objValue));
+
+        if (objValue > bestSolution.objValue() && isSolutionFeasible(solution)) {
+            bestSolution = new PartialResult(solution, objValue);
+        }
+        return bestSolution;
+    }
+
+    // pasillos totales que puede usar una combinacion que mejore la mejor solucion
+    private int maxKnapsackAisles(int totalAisles, PartialResult bestSolution) {
+        return bestSolution.objValue() > 0
+            ? Math.min(totalAisles, (int) Math.floor(waveSizeUB / bestSolution.objValue() + 1e-9))
+            : totalAisles;
+    }
+
+    // layers[K] |= source << shift, sin pasar de UB (words palabras)
+    private void orShifted(long[][] layers, int K, long[] source, int shift, int words) {
+        if (shift > waveSizeUB) {
+            return;
+        }
+        if (layers[K] == null) {
+            layers[K] = new long[words];
+        }
+        long[] target = layers[K];
+        int wordShift = shift >> 6;
+        int bitShift = shift & 63;
+        for (int w = words - 1; w >= wordShift; w--) {
+            long value = source[w - wordShift] << bitShift;
+            if (bitShift > 0 && w - wordShift - 1 >= 0) {
+                value |= source[w - wordShift - 1] >>> (64 - bitShift);
+            }
+            target[w] |= value;
+        }
+        int extra = 63 - (waveSizeUB & 63); // bits por encima de UB en la ultima palabra
+        target[words - 1] &= -1L >>> extra;
+    }
+
+    private static boolean hasBit(long[] bits, int index) {
+        return bits != null && index >= 0 && (bits[index >> 6] & (1L << (index & 63))) != 0;
+    }
+
+    private static int highestBit(long[] bits, int max) {
+        for (int w = max >> 6; w >= 0; w--) {
+            if (bits[w] != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(bits[w]);
+            }
+        }
+        return -1;
+    }
+
+    // parte de la mejor solucion dentro de la componente, como unica entrada de la tabla
+    private PartialResult[] incumbentTable(ItemComponents.Component component, PartialResult bestSolution) {
+        PartialResult[] table = new PartialResult[component.instance.nAisles + 1];
+        if (bestSolution.partialSolution() != null) {
+            ChallengeSolution part = component.project(bestSolution.partialSolution());
+            int k = part.aisles().size();
+            if (k > 0) {
+                InstanceStatistics componentStatistics = new InstanceStatistics(component.instance);
+                int units = 0;
+                for (int o = part.nextOrder(0); o >= 0; o = part.nextOrder(o + 1)) {
+                    units += componentStatistics.orderUnits[o];
+                }
+                table[k] = new PartialResult(part, units);
+            }
+        }
+        return table;
+    }
+
+    // mejor solucion de la componente para cada cantidad de pasillos k (objValue = unidades, null si no se resolvio)
+    private PartialResult[] solveComponent(ItemComponents.Component component, long deadline, long solveLimit) {
+        ChallengeSolver subSolver = new ChallengeSolver(component.instance);
+        long maxUnits = Math.min(waveSizeUB, subSolver.statistics.totalUnits);
+        PartialResult[] table = new PartialResult[component.instance.nAisles + 1];
+        for (int k = 1; k <= component.instance.nAisles; k++) {
+            long remaining = TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime());
+            if (remaining < 1) {
+                break;
+            }
+            PartialResult result = subSolver.solving.problem1aPersistent(k, Math.min(remaining, solveLimit));
+            if (result.partialSolution() == null) {
+                continue;
+            }
+            int units = subSolver.solving.waveSize(result.partialSolution());
+            table[k] = new PartialResult(result.partialSolution(), units);
+            if (units >= maxUnits) {
+                break; // more aisles cannot add units
+            }
+        }
+        return table;
+    }
+
+    /*
+     * Modelo unico para el ratio (problemRatio): el rango de k se acota por la mejor solucion
+     * (units/k >= best => k <= UB/best) y por la cota inferior de pasillos de problem1c.
+     */
+    protected PartialResult solveWithRatioModel(PartialResult bestSolution, StopWatch stopWatch, long timeLimit) {
+        System.out.println("\n>> solveWithRatioModel");
+
+        int kMin = Math.max(1, minimumAislesLowerBound);
+        // epsilon: UB / best puede quedar justo debajo de un entero (p.ej. 7 / (7/3) = 2.9999...);
+        // el k de la mejor solucion siempre entra en el rango
+        int kMax = nAisles;
+        if (bestSolution.objValue() > 0) {
+            int incumbentAisles = bestSolution.partialSolution() != null ? bestSolution.partialSolution().aisles().size() : 0;
+            kMax = Math.min(nAisles, Math.max(incumbentAisles, (int) Math.floor(waveSizeUB / bestSolution.objValue() + 1e-9)));
+        }
+        System.out.println("Aisles number range: [" + kMin + ", " + kMax + "]");
+
+        PartialResult partialResult = solving.problemRatio(kMin, kMax, Math.min(timeLimit, getRemainingTime(stopWatch)), bestSolution.partialSolution());
+
+        if (partialResult.partialSolution() == null) {
+            System.out.println("No feasible solution found");
+            return bestSolution;
+        }
+
+        System.out.println("Objective value = " + partialResult.objValue());
+        if (partialResult.gap() > 0) {
+            System.out.println(String.format("Not proven optimal, bound = %.4f, gap = %.2f%%", partialResult.bound(), partialResult.gap() * 100.0));
+        }
+
+        // update best solution, keeping the bound of the model (valid for any solution better than the incumbent)
+        double bound = Math.max(partialResult.bound(), Math.max(partialResult.objValue(), bestSolution.objValue()));
+        if (partialResult.objValue() > bestSolution.objValue()) {
+            bestSolution = partialResult;
+        }
+
+        return new PartialResult(bestSolution.partialSolution(), bestSolution.objValue(), bound);
+    }
+
     protected PartialResult solveWithFixedAisles(PartialResult bestSolution, StopWatch stopWatch) {
-        return solveWithFixedAisles(bestSolution, stopWatch, 1, aisles.size(), aisles.size());
+        return solveWithFixedAisles(bestSolution, stopWatch, 1, nAisles, nAisles);
         // default value for initialAislesNumber is 1
     }
     protected PartialResult solveWithFixedAisles(PartialResult bestSolution, StopWatch stopWatch, int initialAislesNumber) {
-        return solveWithFixedAisles(bestSolution, stopWatch, initialAislesNumber, aisles.size(), aisles.size());
+        return solveWithFixedAisles(bestSolution, stopWatch, initialAislesNumber, nAisles, nAisles);
         // default value for initialAislesNumber is 1
     }
     protected PartialResult solveWithFixedAisles(PartialResult bestSolution, StopWatch stopWatch, int initialAislesNumber, int finalAislesNumber) {
-        return solveWithFixedAisles(bestSolution, stopWatch, initialAislesNumber, finalAislesNumber, aisles.size());
+        return solveWithFixedAisles(bestSolution, stopWatch, initialAislesNumber, finalAislesNumber, nAisles);
         // default value for initialAislesNumber is 1
     }
 
@@ -447,13 +851,20 @@ public class ChallengeSolver {
 
         // solve
         System.out.println("Minimizing visited aisles");
-        PartialResult partialResult = solving.problem1c(timeLimit);
+        PartialResult partialResult = solving.problem1c(timeLimit, bestSolution.partialSolution());
 
         if (partialResult.partialSolution() == null) {
             System.out.println("No feasible solution found");
             return bestSolution;
         } // no feasible solution found => time limit reached, or the whole problem is infeasible
 
+        // objective and bound are waveSize / aisles, the bound gives the minimum number of aisles
+        int aisles = partialResult.partialSolution().aislesCount();
+        minimumAislesExact = partialResult.gap() == 0;
+        minimumAislesLowerBound = minimumAislesExact ? aisles
+            : Math.max(1, (int) Math.ceil(solving.waveSize(partialResult.partialSolution()) / partialResult.bound() - 1e-6));
+        System.out.println("Minimum aisles: " + aisles + (minimumAislesExact ? " (optimal)" : ", lower bound " + minimumAislesLowerBound));
+
         // System.out.println("Partial Solution:");
         // System.out.println("Selected orders = " + partialResult.partialSolution().orders());
         // System.out.println("Selected aisles = " + partialResult.partialSolution().aisles());
@@ -461,9 +872,9 @@ public class ChallengeSolver {
         double usedCapacity = (1 - totalCapacityLeft(partialResult.partialSolution())) * 100.0;
         System.out.println(String.format("Total capacity used = %.2f%%", usedCapacity));
             
-        // update best solution
+        // update best solution, without the bound of problem1c (it bounds the aisles, not units / aisles)
         if (partialResult.objValue() > bestSolution.objValue()) {
-            bestSolution = partialResult;
+            bestSolution = new PartialResult(partialResult.partialSolution(), partialResult.objValue());
         }
 
         return bestSolution;
@@ -473,25 +884,23 @@ public class ChallengeSolver {
         System.out.println("\n>> solveWithSelectedAisles");
 
         Set<Integer> selectedAisles = new HashSet<>();
-        Set<Integer> remainingAisles = IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet());
 
         int iterationsWithoutImprovement = 0;
         double prevObj = 0;
 
         // iterate over the number of aisles
-        for (int k = 1; k <= aisles.size(); k++) {
+        for (int k = 1; k <= nAisles; k++) {
 
             if (iterationsWithoutImprovement >= maxIterationsWithoutImprovement) {
                 System.out.println("Max iterations without improvement reached, stopping.");
                 break;
             }
 
-            int aisle = maxCapacityAisle(remainingAisles);
+            int aisle = rankedAisle(k);
             if (aisle == -1) {
                 System.out.println("No aisles found in the list.");
                 return bestSolution;
             }
-            remainingAisles.remove(aisle);
             selectedAisles.add(aisle);
 
             if (k < initialAislesNumber) {
@@ -513,7 +922,7 @@ public class ChallengeSolver {
             // solve
             System.out.println("\nMaximizing picked items for number of aisles k = " + k);
             System.out.println("Picked aisles: " + Arrays.toString(selectedAisles.toArray()));
-            PartialResult partialResult = solving.problem2a(selectedAisles, getRemainingTime(stopWatch));
+            PartialResult partialResult = solving.problem2a(selectedAisles, getRemainingTime(stopWatch), bestSolution.partialSolution());
     
             if (partialResult.partialSolution() == null) {
                 System.out.println("No feasible solution found for k = " + k);
@@ -548,11 +957,11 @@ public class ChallengeSolver {
         return bestSolution;
     }
     protected PartialResult solveWithSelectedAisles(PartialResult bestSolution, StopWatch stopWatch) {
-        return solveWithSelectedAisles(bestSolution, stopWatch, 1, aisles.size());
+        return solveWithSelectedAisles(bestSolution, stopWatch, 1, nAisles);
         // all possible aisles number
     }
     protected PartialResult solveWithSelectedAisles(PartialResult bestSolution, StopWatch stopWatch, int initialAislesNumber) {
-        return solveWithSelectedAisles(bestSolution, stopWatch, initialAislesNumber, aisles.size());
+        return solveWithSelectedAisles(bestSolution, stopWatch, initialAislesNumber, nAisles);
         // default max iterations = total number of aisles - initial number of aisles
     }
 
@@ -561,7 +970,7 @@ public class ChallengeSolver {
 
         // solve
         System.out.println("\nMaximizing picked items for picked aisles: " + Arrays.toString(selectedAisles.toArray()));
-        PartialResult partialResult = solving.problem2a(selectedAisles, getRemainingTime(stopWatch));
+        PartialResult partialResult = solving.problem2a(selectedAisles, getRemainingTime(stopWatch), bestSolution.partialSolution());
     
         if (partialResult.partialSolution() == null) {
             System.out.println("No feasible solution found");
@@ -634,7 +1043,7 @@ public class ChallengeSolver {
             int N = random.nextInt(UB - LB + 1) + LB; // cantidad de items aleatoria entre [LB, UB]
             System.out.println("\nIteration " + k + " with N=" + N + " items");
 
-            Set<Integer> remainingOrders = IntStream.range(0, orders.size()).boxed().collect(Collectors.toSet());
+            Set<Integer> remainingOrders = IntStream.range(0, nOrders).boxed().collect(Collectors.toSet());
             Set<Integer> selectedOrders = new HashSet<>();
             int waveSize = 0;
             long remainingTime = getRemainingTime(stopWatch);
@@ -654,10 +1063,7 @@ public class ChallengeSolver {
                     return bestSolution;
                 }
 
-                int orderSize = 0;
-                for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                    orderSize += entry.getValue();
-                }
+                int orderSize = statistics.orderUnits[order];
 
                 if (waveSize + orderSize > N) {
                     if (waveSize < waveSizeLB) {
@@ -717,16 +1123,13 @@ public class ChallengeSolver {
     protected PartialResult solveGreedySelection(PartialResult bestSolution, StopWatch stopWatch) {
         System.out.println("\n>> solveGreedySelection");
 
-        Set<Integer> selectedAisles = new HashSet<>();
-        Set<Integer> remainingAisles = IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet());
-
-        Set<Integer> selectedOrders = new HashSet<>();
-        Set<Integer> remainingOrders = IntStream.range(0, orders.size()).boxed().collect(Collectors.toSet());
+        // selected orders and aisles, with incremental feasibility
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(instance, statistics);
 
         int waveSize = 0;
 
         // iterate over the number of aisles
-        for (int k = 1; k <= aisles.size(); k++) {
+        for (int k = 1; k <= nAisles; k++) {
 
             if (getRemainingTime(stopWatch) < 1) {
                 System.out.println("Max runtime reached, stopping iteration over k.");
@@ -748,42 +1151,38 @@ public class ChallengeSolver {
 
             System.out.println("\nSelecting orders of available items from " + k + " aisles");
 
-            int aisle = maxCapacityAisle(remainingAisles);
+            int aisle = rankedAisle(k);
             if (aisle == -1) {
                 System.out.println("No aisles found in the list.");
                 break;
             }
-            remainingAisles.remove(aisle);
-            selectedAisles.add(aisle);
+            evaluator.addAisle(aisle);
 
             // if (k < initialAislesNumber) {
             //     continue; // skip iterations until we reach the initial aisles number
             // }
 
             int newOrdersCount = 0;
-            Map<Integer, Integer> aisleItems = aisles.get(aisle);
-            for (Map.Entry<Integer, Integer> entry : aisleItems.entrySet()) { // for item in aisle
+            for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) { // for item in aisle
 
-                Item item = items.get(entry.getKey());
-                int capacity = entry.getValue();
+                Item item = items.get(instance.aisleItems[p]);
+                int capacity = instance.aisleQuantities[p];
                 
-                for (Map.Entry<Integer, Integer> order : item.orders.entrySet()) { // for order with this item
+                for (int q = item.orderStart; q < item.orderEnd; q++) { // for order with this item
 
-                    int orderId = order.getKey();
-                    int orderQuantity = order.getValue();
+                    int orderId = instance.itemOrders[q];
+                    int orderQuantity = instance.itemOrderQuantities[q];
 
                     if (waveSize + orderQuantity > waveSizeUB) {
                         break;
                     }
 
                     // Check if the order can be fulfilled
-                    if (orders.get(orderId).size() > 1 || capacity < orderQuantity) {
+                    if (statistics.orderItemCount[orderId] > 1 || capacity < orderQuantity) {
                         continue;
                     }
                     
-                    if (remainingOrders.contains(orderId)) {
-                        selectedOrders.add(orderId);
-                        remainingOrders.remove(orderId);
+                    if (evaluator.addOrder(orderId)) {
                         capacity -= orderQuantity;
                         waveSize += orderQuantity;
                         newOrdersCount++;
@@ -792,7 +1191,7 @@ public class ChallengeSolver {
             }
             System.out.println("New orders count: " + newOrdersCount);
 
-            PartialResult partialResult = generatePartialResult(selectedOrders, selectedAisles);
+            PartialResult partialResult = evaluator.toPartialResult(); // O(1) feasibility check
 
             if (partialResult.partialSolution() == null) {
                 System.out.println("No feasible solution found for k = " + k);
@@ -820,174 +1219,218 @@ public class ChallengeSolver {
         return bestSolution;
     }
     
+    /*
+     * Arranques del greedy aleatorio uno tras otro: ParallelRandomGreedy con un solo hilo
+     */
     protected PartialResult solveRandomGreedySelection(PartialResult bestSolution, StopWatch stopWatch, int maxIterations) {
         System.out.println("\n>> solveRandomGreedySelection");
 
-        Random random = new Random(12345);
+        long start = System.nanoTime();
+        ParallelRandomGreedy greedy = new ParallelRandomGreedy(this, 1);
+        PartialResult partialResult = greedy.run(bestSolution, deadline(stopWatch, getRemainingTime(stopWatch)), 12345, maxIterations);
 
-        for (int i=0; i < maxIterations; i++) {
-
-            System.out.println("\nIteration " + i);
+        System.out.println(String.format("%d starts in %.1f s", greedy.starts(), secondsSince(start)));
+        System.out.println("Objective value = " + partialResult.objValue());
 
-            Set<Integer> selectedAisles = new HashSet<>();
-            Set<Integer> remainingAisles = IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet());
+        return partialResult;
+    }
 
-            Set<Integer> selectedOrders = new HashSet<>();
-            Set<Integer> remainingOrders = IntStream.range(0, orders.size()).boxed().collect(Collectors.toSet());
+    /*
+     * Iteraciones de solveRandomGreedySelection en paralelo: cada hilo repite arranques con su propio
+     * evaluador y generador hasta el limite de tiempo, compartiendo la mejor solucion
+     */
+    protected PartialResult solveParallelRandomGreedy(PartialResult bestSolution, StopWatch stopWatch, long timeLimit) {
+        System.out.println("\n>> solveParallelRandomGreedy");
 
-            int waveSize = 0;
+        long start = System.nanoTime();
+        ParallelRandomGreedy greedy = new ParallelRandomGreedy(this, greedyThreads);
+        PartialResult partialResult = greedy.run(bestSolution, deadline(stopWatch, timeLimit), 12345);
+        double seconds = secondsSince(start);
 
-            // iterate over the number of aisles
-            for (int k = 1; k <= aisles.size(); k++) {
+        System.out.println(String.format("%d starts on %d threads in %.1f s (%.0f starts/s)", greedy.starts(), greedyThreads, seconds, greedy.starts() / seconds));
+        System.out.println("Objective value = " + partialResult.objValue());
 
-                if (getRemainingTime(stopWatch) < 1) {
-                    System.out.println("Max runtime reached, stopping iteration over k.");
-                    break;
-                }
-                
-                if (waveSize >= waveSizeLB && waveSizeUB/k <= bestSolution.objValue()) {
-                    // stopping condition due to optimality
-                    System.out.println("Current best solution with value " + bestSolution.objValue() + " is already better than the maximum possible for k >= " + k);
-                    break;
-                }
+        return partialResult;
+    }
 
-                // System.out.println("\nSelecting orders of available items from " + k + " aisles");
+    /*
+     * ALNS: destruir pasillos (aleatorios, relacionados o menos usados) con sus ordenes y reparar con
+     * greedy o con problem2c acotado en tiempo; pesos de los operadores segun su exito
+     */
+    protected PartialResult solveLargeNeighbourhoodSearch(PartialResult bestSolution, StopWatch stopWatch, long timeLimit) {
+        System.out.println("\n>> solveLargeNeighbourhoodSearch");
 
-                // int aisle = randomAisle(random, remainingAisles);
-                int aisle = maxCapacityAisle(remainingAisles);
-                if (aisle == -1) {
-                    // System.out.println("No aisles found in the list.");
-                    break;
-                }
-                remainingAisles.remove(aisle);
-                selectedAisles.add(aisle);
+        long start = System.nanoTime();
+        LargeNeighbourhoodSearch alns = new LargeNeighbourhoodSearch(this, 12345);
+        PartialResult partialResult = alns.run(bestSolution, deadline(stopWatch, timeLimit), aisleCountBounds.upperBound(), alnsMaxStall, alnsMipTimeLimit, 0.01);
 
-                // if (k < initialAislesNumber) {
-                //     continue; // skip iterations until we reach the initial aisles number
-                // }
-                
-                List<Map.Entry<Integer, Integer>> shuffledItems = new ArrayList<>(aisles.get(aisle).entrySet());
-                Collections.shuffle(shuffledItems, random);
-
-                // int newOrdersCount = 0;
-                for (Map.Entry<Integer, Integer> entry : shuffledItems) { // for item in aisle
-                    Item item = items.get(entry.getKey());
-                    int capacity = entry.getValue();
-
-                    List<Map.Entry<Integer, Integer>> shuffledOrders = new ArrayList<>(item.orders.entrySet());
-                    Collections.shuffle(shuffledOrders, random);
-
-                    for (Map.Entry<Integer, Integer> order : shuffledOrders) { // for order with this item
-
-                        int orderId = order.getKey();
-                        int orderQuantity = order.getValue();
-
-                        if (waveSize + orderQuantity > waveSizeUB) {
-                            break;
-                        }
-
-                        // Check if the order can be fulfilled
-                        if (orders.get(orderId).size() > 1 || capacity < orderQuantity) {
-                            continue;
-                        }
-                        
-                        if (remainingOrders.contains(orderId)) {
-                            selectedOrders.add(orderId);
-                            remainingOrders.remove(orderId);
-                            capacity -= orderQuantity;
-                            waveSize += orderQuantity;
-                            // newOrdersCount++;
-                        }
-                    }
-                }
-                // System.out.println("New orders count: " + newOrdersCount);
+        System.out.println(String.format("%d iterations, %d improvements in %.1f s (%s)", alns.iterations(), alns.improvements(), secondsSince(start), alns.weights()));
+        System.out.println("Objective value = " + partialResult.objValue());
 
-                PartialResult partialResult = generatePartialResult(selectedOrders, selectedAisles);
+        return partialResult;
+    }
 
-                if (partialResult.partialSolution() == null) {
-                    // System.out.println("No feasible solution found for k = " + k);
-                    continue;
-                } // no feasible
-
-                // show selected solution
-                // System.out.println("Partial Solution:");
-                // System.out.println("Selected orders = " + partialResult.partialSolution().orders());
-                // System.out.println("Selected aisles = " + partialResult.partialSolution().aisles());
-                System.out.println("Objective value = " + partialResult.objValue());
-                double usedCapacity = (1 - totalCapacityLeft(partialResult.partialSolution())) * 100.0;
-                System.out.println(String.format("Total capacity used = %.2f%%", usedCapacity));
-                
-                // update best solution
-                if (waveSize >= waveSizeLB && partialResult.objValue() > bestSolution.objValue()) {
-                    bestSolution = partialResult;
-                }
+    /*
+     * Post-optimizacion: probar quitar cada pasillo visitado, descartar solo las ordenes sin cobertura
+     * y rellenar con el stock restante; se acepta si mejora unidades / pasillos
+     */
+    protected PartialResult solveAisleDropRepair(PartialResult bestSolution, StopWatch stopWatch, long timeLimit) {
+        System.out.println("\n>> solveAisleDropRepair");
 
-            }
-            System.out.println("Current best objective value " + bestSolution.objValue());
-        }
+        long start = System.nanoTime();
+        AisleDropRepair dropRepair = new AisleDropRepair(instance, statistics);
+        PartialResult partialResult = dropRepair.run(bestSolution, deadline(stopWatch, timeLimit));
 
-        System.out.println("Done iterating over random greedy selection");
-        // System.out.println("Best solution found with value " + bestSolution.objValue());
+        System.out.println(String.format("%d trials, %d aisles removed in %.3f s", dropRepair.trials(), dropRepair.accepted(), secondsSince(start)));
+        System.out.println("Objective value = " + partialResult.objValue());
 
-        return bestSolution;
+        return partialResult;
     }
 
-    protected PartialResult solveSuperAisleGreedySelection(PartialResult bestSolution, StopWatch stopWatch, Set<Integer> selectedAisles, Random random) {
+    protected PartialResult solveSuperAisleGreedySelection(PartialResult bestSolution, StopWatch stopWatch, BitSet selectedAisles, Random random) {
         System.out.println("\n>> solveSuperAisleGreedySelection");
 
         // Implementar el algoritmo greedy para seleccionar órdenes sobre un subconjunto de pasillos
 
         
-        int nAisles = selectedAisles.size();
+        int nAisles = selectedAisles.cardinality();
 
         System.out.println("\nGreedy selection over super-aisle with k = " + nAisles + " aisles");
         
         // Crear un "super-pasillo" ficticio que combine los nAisles pasillos seleccionados
         // set items stock
-        for (Item item : items) {
-            item.resetStock();
-            for (Map.Entry<Integer, Integer> aisle : item.aisles.entrySet()) { // for order with this item
-                if (selectedAisles.contains(aisle.getKey())) {
-                    item.addStock(aisle.getValue()); // Add stock from selected aisles
-                }
-            }
-        }
-
-        Set<Integer> selectedOrders = selectOrders(random);
-
-        PartialResult partialResult = generatePartialResult(selectedOrders, selectedAisles);
+        orderSelector.setStock(selectedAisles);
 
-        if (partialResult.partialSolution() == null) {
+        // select() no deja stock negativo ni pasa el UB: solo falta el LB
+        BitSet selectedOrders = selectOrders(random);
+        int waveSize = orderSelector.waveSize();
+        if (selectedOrders.isEmpty() || nAisles == 0 || waveSize < waveSizeLB) {
             System.out.println("No feasible solution found");
             return bestSolution;
         } // no feasible
 
-        
-        System.out.println("Objective value = " + partialResult.objValue());
-        // int capacity = totalCapacity(partialResult.partialSolution().aisles());
-        // int demand = totalDemand(partialResult.partialSolution().orders());
-        // System.out.println("Total capacity = " + capacity);
-        // System.out.println("Total demand = " + demand);
-        // System.out.println("Total capacity left = " + (capacity - demand) + " = " + (((double) (capacity - demand)/capacity)*100)+ "%");
-        double usedCapacity = (1 - totalCapacityLeft(partialResult.partialSolution())) * 100.0;
-        System.out.println(String.format("Total capacity used = %.2f%%", usedCapacity));
+        double objValue = (double) waveSize / nAisles;
+        System.out.println("Objective value = " + objValue);
+        int capacity = 0;
+        for (int a = selectedAisles.nextSetBit(0); a >= 0; a = selectedAisles.nextSetBit(a + 1)) {
+            capacity += statistics.aisleCapacity[a];
+        }
+        System.out.println(String.format("Total capacity used = %.2f%%", 100.0 * waveSize / capacity));
 
 
-        // update best solution
-        if (partialResult.objValue() > bestSolution.objValue()) {
-            bestSolution = partialResult;
+        // update best solution (copia de los bitsets de trabajo solo si mejora)
+        if (objValue > bestSolution.objValue()) {
+            bestSolution = new PartialResult(ChallengeSolution.of(selectedOrders, selectedAisles), objValue);
         }
 
         // System.out.println("Best solution found with value " + bestSolution.objValue());
 
         return bestSolution;
     }
+    protected PartialResult solveSuperAisleGreedySelection(PartialResult bestSolution, StopWatch stopWatch, Set<Integer> selectedAisles, Random random) {
+        greedyAisles.clear();
+        for (int a : selectedAisles) {
+            greedyAisles.set(a);
+        }
+        return solveSuperAisleGreedySelection(bestSolution, stopWatch, greedyAisles, random);
+    }
     protected PartialResult solveSuperAisleGreedySelection(PartialResult bestSolution, StopWatch stopWatch, int nAisles) {
         Set<Integer> selectedAisles = getBestAislesSubset(nAisles); // por defecto se elijen los pasillos con mas capacidad
-        return solveSuperAisleGreedySelection(bestSolution, stopWatch, selectedAisles, new Random(12)); // semilla por defecto
+        return solveSuperAisleGreedySelection(bestSolution, stopWatch, selectedAisles, greedyRandom()); // semilla por defecto
     }
     protected PartialResult solveSuperAisleGreedySelection(PartialResult bestSolution, StopWatch stopWatch, Set<Integer> selectedAisles) {
-        return solveSuperAisleGreedySelection(bestSolution, stopWatch, selectedAisles, new Random(12)); // semilla por defecto
+        return solveSuperAisleGreedySelection(bestSolution, stopWatch, selectedAisles, greedyRandom()); // semilla por defecto
+    }
+
+    /*
+     * Barrido incremental del super-pasillo: la solucion de k pasillos se extiende a k+1
+     * agregando solo el stock del nuevo pasillo y las ordenes de sus items que ahora caben.
+     * Una orden que no cabia con k pasillos solo puede caber con k+1 si usa algun item del
+     * nuevo pasillo (el resto de la holgura solo disminuye), asi que no hace falta recorrer
+     * todas las ordenes. Sin reparacion, cada paso k recorre una vez las ordenes de los items
+     * del nuevo pasillo, O(sum de |ordenes(i)| para i en el pasillo) mas el costo de addOrder;
+     * como un item aparece en varios pasillos, el barrido 1..A puede revisar la misma orden
+     * una vez por pasillo que contiene alguno de sus items.
+     * Con repair (apagado por defecto) se intenta a lo sumo un intercambio por item y por k,
+     * O(|ordenes(i)|) adicional. El intercambio libera holgura en items que pueden no estar
+     * en el nuevo pasillo, y las ordenes de esos items no se revisan: es una heuristica.
+     * El valor objetivo de cada k se guarda en candidateAisleNumbers (0 si no es factible).
+     */
+    protected PartialResult solveSuperAisleSweep(PartialResult bestSolution, StopWatch stopWatch, Map<Integer, Double> candidateAisleNumbers, boolean repair, Random random) {
+        System.out.println("\n>> solveSuperAisleSweep");
+
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(instance, statistics);
+        // buffers de permutacion reutilizados en todos los pasos
+        int[] itemPositions = new int[statistics.maxAisleItems];
+        int[] orderPositions = new int[statistics.maxItemOrders];
+
+        for (int k = 1; k <= nAisles; k++) {
+            if (getRemainingTime(stopWatch) < 1) {
+                System.out.println("Max runtime reached, stopping sweep over k.");
+                break;
+            }
+
+            int aisle = rankedAisle(k);
+            if (aisle == -1) {
+                break; // el resto de los pasillos esta vacio
+            }
+            evaluator.addAisle(aisle);
+
+            // extender la seleccion con las ordenes de los items del nuevo pasillo
+            int itemCount = fillShuffled(itemPositions, instance.aisleStart[aisle], instance.aisleStart[aisle + 1], random);
+            for (int i = 0; i < itemCount; i++) {
+                Item item = items.get(instance.aisleItems[itemPositions[i]]);
+                boolean swapTried = !repair; // a lo sumo un intento de intercambio por item y por k
+                int orderCount = fillShuffled(orderPositions, item.orderStart, item.orderEnd, random);
+                for (int j = 0; j < orderCount; j++) {
+                    int orderId = instance.itemOrders[orderPositions[j]];
+                    if (evaluator.orderFits(orderId)) {
+                        evaluator.addOrder(orderId);
+                    } else if (!swapTried && !evaluator.hasOrder(orderId)) {
+                        swapTried = true;
+                        repairWithSwap(evaluator, item, orderId);
+                    }
+                }
+            }
+
+            PartialResult partialResult = evaluator.toPartialResult();
+            candidateAisleNumbers.put(k, partialResult.objValue());
+            System.out.println("k = " + k + ", objective value = " + partialResult.objValue());
+
+            if (partialResult.partialSolution() != null && partialResult.objValue() > bestSolution.objValue()) {
+                bestSolution = partialResult;
+            }
+            if (bestSolution.objValue() >= aisleCountBounds.upperBoundFrom(k+1)) {
+                System.out.println("Current best solution with value " + bestSolution.objValue() + " is already better than the maximum possible for k >= " + (k+1));
+                break;
+            }
+        }
+
+        return bestSolution;
+    }
+    protected PartialResult solveSuperAisleSweep(PartialResult bestSolution, StopWatch stopWatch, Map<Integer, Double> candidateAisleNumbers) {
+        return solveSuperAisleSweep(bestSolution, stopWatch, candidateAisleNumbers, false, new Random(12)); // sin reparacion, semilla por defecto
+    }
+
+    /*
+     * Reparacion local: cambia una orden seleccionada que comparte el item por la orden dada,
+     * si esta tiene mas unidades y cabe una vez liberada la otra. Solo revisa las ordenes del item.
+     */
+    private boolean repairWithSwap(IncrementalEvaluator evaluator, Item item, int orderId) {
+        int units = statistics.orderUnits[orderId];
+        for (int q = item.orderStart; q < item.orderEnd; q++) {
+            int selected = instance.itemOrders[q];
+            if (!evaluator.hasOrder(selected) || statistics.orderUnits[selected] >= units) {
+                continue;
+            }
+            evaluator.removeOrder(selected);
+            if (evaluator.orderFits(orderId)) {
+                evaluator.addOrder(orderId);
+                return true;
+            }
+            evaluator.addOrder(selected); // deshacer
+        }
+        return false;
     }
 
     protected PartialResult solveWithPreSelection(PartialResult bestSolution, StopWatch stopWatch) {
@@ -1011,7 +1454,7 @@ public class ChallengeSolver {
 
         // solve
         System.out.println("\nMaximizing picked items for number of aisles k = " + selectedAisles.size());
-        PartialResult partialResult = solving.problem2c(selectedAisles, selectedOrders, getRemainingTime(stopWatch));
+        PartialResult partialResult = solving.problem2c(selectedAisles, selectedOrders, getRemainingTime(stopWatch), bestSolution.partialSolution());
         // PartialResult partialResult = solving.problem1aCP(k, getRemainingTime(stopWatch));
 
         // show optimal for k aisles
@@ -1032,80 +1475,22 @@ public class ChallengeSolver {
         return bestSolution;
     }
 
-    protected PartialResult tabuSearch(PartialResult bestSolution, StopWatch stopWatch, int k, int p, int n, int maxIterations) {
+    /*
+     * Busqueda tabu desde el greedy sobre los k pasillos de mayor capacidad, con el motor de
+     * TabuSearch (intercambios de un pasillo evaluados por holgura, vecindario completo en paralelo)
+     */
+    protected PartialResult tabuSearch(PartialResult bestSolution, StopWatch stopWatch, int k, int maxIterations) {
         System.out.println("\n>> Tabu Search");
         System.out.println("Conjuntos de " + k + " pasillos");
-        System.out.println("Intercambiando " + p + " elementos");
-        System.out.println("Tamaño del vecindario: " + n);
 
         int tabuTenure = 10;
 
-        Set<Integer> universe = IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet());
-
-        Random rand = new Random(42); // Semilla fija para reproducibilidad
-
         // Solución inicial: los k mayores elementos
-        
-        Set<Integer> current = getBestAislesSubset(k);
-        PartialResult best = evaluate(current, stopWatch);
-
-        // Lista tabú: pares de intercambios recientes
-        Queue<Set<Integer>> tabuList = new LinkedList<>();
+        PartialResult initial = evaluate(getBestAislesSubset(k), stopWatch);
 
-        for (int iter = 0; iter < maxIterations; iter++) {
-            if (getRemainingTime(stopWatch) < 1) {
-                System.out.println("Max runtime reached, stopping iteration over k.");
-                break;
-            }
-
-            System.out.println("Iteracion " + (iter + 1) + " de " + maxIterations);
-            List<PartialResult> neighbors = new ArrayList<>();
-
-            // Generar vecinos por intercambios de p elementos
-            List<Integer> inSet = new ArrayList<>(current);
-            List<Integer> outSet = new ArrayList<>(universe);
-            outSet.removeAll(current);
-
-            PartialResult bestNeighbor = new PartialResult(null,0);
-
-            for (int i = 0; i < n; i++) { // Limitar vecinos por eficiencia
-                System.out.println("Generando vecino " + (i + 1) + " de " + n + " (iteracion " + (iter + 1) + ")");
-                Set<Integer> newSet = new HashSet<>(current);
-
-                // Seleccionar p elementos a remover y p a agregar
-                Collections.shuffle(inSet, rand);
-                Collections.shuffle(outSet, rand);
-                Set<Integer> removed = new HashSet<>(inSet.subList(0, p));
-                Set<Integer> added = new HashSet<>(outSet.subList(0, p));
-
-                newSet.removeAll(removed);
-                newSet.addAll(added);
-
-                if (tabuList.contains(added)) continue; // Evitar movimientos tabú
-
-                PartialResult neighbor = evaluate(newSet, stopWatch);
-                if (neighbor == null || neighbor.partialSolution() == null) continue; // No factible
-                neighbors.add(neighbor);
-                double score = neighbor.objValue();
-
-                if (score > bestNeighbor.objValue()) {
-                    bestNeighbor = neighbor;
-                    // Seleccionar mejor vecino
-                }
-            }
-
-            if (bestNeighbor == null || bestNeighbor.partialSolution() == null) continue; // No factible
-            current = bestNeighbor.partialSolution().aisles();
-
-            // Actualizar mejor global
-            if (bestNeighbor.objValue() > best.objValue()) {
-                best = bestNeighbor;
-            }
-
-            // Actualizar lista tabú
-            tabuList.add(new HashSet<>(current));
-            if (tabuList.size() > tabuTenure) tabuList.poll();
-        }
+        TabuSearch tabu = new TabuSearch(this, greedyThreads);
+        PartialResult best = tabu.run(initial, deadline(stopWatch, getRemainingTime(stopWatch)), tabuTenure, maxIterations);
+        System.out.println(tabu.iterations() + " iteraciones, valor " + best.objValue());
 
         System.out.println("Best solution found with value " + bestSolution.objValue());
         if (best.objValue() > bestSolution.objValue()) {
@@ -1115,10 +1500,35 @@ public class ChallengeSolver {
         return bestSolution;
 
     }
+
+    /*
+     * Busqueda tabu sobre los pasillos de la mejor solucion (k fijo): intercambios de un pasillo
+     * evaluados en forma incremental con la holgura por item, vecindario completo en paralelo
+     */
+    protected PartialResult solveTabuSearch(PartialResult bestSolution, StopWatch stopWatch, long timeLimit) {
+        System.out.println("\n>> solveTabuSearch");
+
+        long start = System.nanoTime();
+        TabuSearch tabu = new TabuSearch(this, greedyThreads);
+        PartialResult partialResult = tabu.run(bestSolution, deadline(stopWatch, timeLimit), 10, Integer.MAX_VALUE);
+        double seconds = secondsSince(start);
+
+        System.out.println(String.format("%d iterations on %d threads in %.1f s (%.0f iterations/s)", tabu.iterations(), greedyThreads, seconds, tabu.iterations() / seconds));
+        System.out.println("Objective value = " + partialResult.objValue());
+
+        return partialResult;
+    }
+
     protected PartialResult evaluate(Set<Integer> subset, StopWatch stopWatch) {
+        return evaluate(subset, stopWatch, new PartialResult(null, 0));
+    }
+    /*
+     * @return the greedy solution on the subset if it beats baseline, baseline otherwise
+     */
+    protected PartialResult evaluate(Set<Integer> subset, StopWatch stopWatch, PartialResult baseline) {
         // Evaluate the objective value of the subset
-        // return solveWithAisleSubset(new PartialResult(null, 0), stopWatch, subset);
-        return solveSuperAisleGreedySelection(new PartialResult(null, 0), stopWatch, subset); // greedy
+        // return solveWithAisleSubset(baseline, stopWatch, subset);
+        return solveSuperAisleGreedySelection(baseline, stopWatch, subset); // greedy
 
     }
 
@@ -1134,6 +1544,15 @@ public class ChallengeSolver {
                 0);
     }
 
+    // System.nanoTime() at which a step of at most timeLimit seconds (and the remaining time) stops
+    protected long deadline(StopWatch stopWatch, long timeLimit) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.min(timeLimit, getRemainingTime(stopWatch)));
+    }
+
+    protected static double secondsSince(long start) {
+        return Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+    }
+
     public int randomOrder(Random random, Set<Integer> ordersList) {
         if (ordersList.isEmpty()) {
             return -1;
@@ -1152,6 +1571,21 @@ public class ChallengeSolver {
         return array[index];
     }
 
+    // positions [from, to) of a CSR row in random order, in the first to - from slots of the buffer
+    protected static int fillShuffled(int[] buffer, int from, int to, RandomGenerator random) {
+        int n = to - from;
+        for (int i = 0; i < n; i++) {
+            buffer[i] = from + i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+        return n;
+    }
+
     public int maxCapacityAisle(Set<Integer> aislesList) {
 
         int maxAisle = -1;
@@ -1159,10 +1593,7 @@ public class ChallengeSolver {
         int capacity = 0;
 
         for (int aisle : aislesList) { // each aisle
-            capacity = 0;
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                capacity += entry.getValue(); // each item
-            }
+            capacity = statistics.aisleCapacity[aisle];
             if (capacity > max) { // update
                 max = capacity;
                 maxAisle = aisle;
@@ -1176,25 +1607,27 @@ public class ChallengeSolver {
         return maxAisle;
     }
 
-    public Set<Integer> getBestAislesSubset(int nAisles) {
-        
-        Set<Integer> selectedAisles = new HashSet<>();
-        Set<Integer> remainingAisles = IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet());
-
-        // select aisles subset
-        for (int k = 1; k <= nAisles; k++) {
-
-            int aisle = maxCapacityAisle(remainingAisles);
-            if (aisle == -1) {
-                System.out.println("No aisles found in the list.");
-                break;
-            }
-            remainingAisles.remove(aisle);
-            selectedAisles.add(aisle);
-            
+    /*
+     * k-th best aisle of the ranking (k starting at 1), or -1 if there is none with capacity left
+     */
+    public int rankedAisle(int k) {
+        if (k > aisleRanking.size()) {
+            return -1;
         }
+        int aisle = aisleRanking.aisle(k - 1);
+        return statistics.aisleCapacity[aisle] > 0 ? aisle : -1;
+    }
 
-        return selectedAisles;
+    public Set<Integer> getBestAislesSubset(int nAisles) {
+        // prefix of the ranking, skipping empty aisles
+        int k = Math.min(nAisles, aisleRanking.size());
+        while (k > 0 && rankedAisle(k) == -1) {
+            k--;
+        }
+        if (k < nAisles) {
+            System.out.println("No aisles found in the list.");
+        }
+        return aisleRanking.topK(k);
     }
 
     public Set<Integer> getRandomAislesSubset(int nAisles, Set<Integer> aislesList, Random random) {
@@ -1214,65 +1647,25 @@ public class ChallengeSolver {
         return selectedAisles;
     }
     public Set<Integer> getRandomAislesSubset(int nAisles, Random random) {
-        return getRandomAislesSubset(nAisles, IntStream.range(0, aisles.size()).boxed().collect(Collectors.toSet()), random);
+        return getRandomAislesSubset(nAisles, IntStream.range(0, this.nAisles).boxed().collect(Collectors.toSet()), random);
         // todos los pasillos por defecto
     }
 
 
     
 
-    public Set<Integer> selectOrders(Random random) {
-
-        Set<Integer> selectedOrders = new HashSet<>();
-
-        // recorrer items para seleccionar ordenes
-        int waveSize = 0;
-
-        List<Item> shuffledItems = new ArrayList<>(items);
-        Collections.shuffle(shuffledItems, random);
-        for (Item item : shuffledItems) { // for item in aisle
-
-            List<Map.Entry<Integer, Integer>> shuffledOrders = new ArrayList<>(item.orders.entrySet());
-            Collections.shuffle(shuffledOrders, random);
-            for (Map.Entry<Integer, Integer> order : shuffledOrders) { // for order with this item
-
-                int orderId = order.getKey();
-                int orderDemand = 0;
-
-                boolean enoughStock = true;
-                // Check if the order can be fulfilled
-                if (item.stock < order.getValue()) { // check only "item"
-                    enoughStock = false;
-                }
-                for (Map.Entry<Integer, Integer> entry : orders.get(orderId).entrySet()) { // check all items
-                    Item itemNeeded = items.get(entry.getKey());
-                    int itemQuantity = entry.getValue();
-                    orderDemand += itemQuantity;
-
-                    if (itemNeeded.stock < itemQuantity) {
-                        enoughStock = false; // Not enough stock for item found
-                        break;
-                    }
-                }
-                if (!enoughStock || waveSize + orderDemand > waveSizeUB) { // do not exceed upper bound
-                    continue;
-                }
-
-                selectedOrders.add(orderId);
-
-                // update stock
-                for (Map.Entry<Integer, Integer> entry : orders.get(orderId).entrySet()) { // for item in order
-                    Item itemNeeded = items.get(entry.getKey());
-                    int itemQuantity = entry.getValue();
-                    
-                    itemNeeded.removeStock(itemQuantity);
-                }
-
-                waveSize += orderDemand;
-            }
-        }
+    /*
+     * Greedy sobre el stock fijado en orderSelector (setStock): items y ordenes en orden aleatorio
+     * @return ordenes seleccionadas (buffer interno del selector, valido hasta la proxima llamada)
+     */
+    public BitSet selectOrders(RandomGenerator random) {
+        return orderSelector.select(random);
+    }
 
-        return selectedOrders;
+    // generador de la semilla por defecto (12), sin crear uno nuevo en cada evaluacion
+    private Random greedyRandom() {
+        greedyRandom.setSeed(12);
+        return greedyRandom;
     }
 
     public int totalCapacity(Set<Integer> aislesList) {
@@ -1280,9 +1673,7 @@ public class ChallengeSolver {
         int totalCapacity = 0;
 
         for (int aisle : aislesList) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalCapacity += entry.getValue();
-            }
+            totalCapacity += statistics.aisleCapacity[aisle];
         }
 
         return totalCapacity;
@@ -1293,9 +1684,7 @@ public class ChallengeSolver {
         int totalDemand = 0;
 
         for (int order : ordersList) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalDemand += entry.getValue();
-            }
+            totalDemand += statistics.orderUnits[order];
         }
 
         return totalDemand;
@@ -1323,17 +1712,13 @@ public class ChallengeSolver {
         int count = 0;
 
         for (int aisle : aislesList) { // each aisle
-            aisleCapacity = 0;
-            count = 0;
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                aisleCapacity += entry.getValue(); // each item
-                count++;
-            }
+            aisleCapacity = statistics.aisleCapacity[aisle];
+            count = statistics.aisleItemCount[aisle];
             meanSize += aisleCapacity;
             meanItems += count;
         }
 
-        return new double[] {meanSize / (double) aisles.size(), meanItems / (double) aisles.size()};
+        return new double[] {meanSize / (double) nAisles, meanItems / (double) nAisles};
     }
 
     public double[] calculateMeanOrderSize(Set<Integer> ordersList) {
@@ -1344,34 +1729,23 @@ public class ChallengeSolver {
         int count = 0;
 
         for (int order : ordersList) { // each order
-            orderSize = 0;
-            count = 0;
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                orderSize += entry.getValue(); // each item
-                count++;
-            }
+            orderSize = statistics.orderUnits[order];
+            count = statistics.orderItemCount[order];
             meanSize += orderSize;
             meanItems += count;
         }
 
-        return new double[] {meanSize / (double) orders.size(), meanItems / (double) orders.size()};
+        return new double[] {meanSize / (double) nOrders, meanItems / (double) nOrders};
     }
 
 
     protected PartialResult generatePartialResult(Set<Integer> selectedOrders, Set<Integer> selectedAisles) {
-        // Implement the logic to calculate the partial result based on selected orders and aisles
-
-        Set<Integer> finalAisles = new HashSet<>();
-        for (Integer a : selectedAisles) {
-            finalAisles.add(a);
-        }
-        Set<Integer> finalOrders = new HashSet<>();
-        for (Integer o : selectedOrders) {
-            finalOrders.add(o);
-        }
-
-        ChallengeSolution challengeSolution = new ChallengeSolution(finalOrders, finalAisles);
-
+        return generatePartialResult(new ChallengeSolution(selectedOrders, selectedAisles));
+    }
+    protected PartialResult generatePartialResult(BitSet selectedOrders, BitSet selectedAisles) {
+        return generatePartialResult(ChallengeSolution.of(selectedOrders, selectedAisles)); // snapshot of the working bitsets
+    }
+    protected PartialResult generatePartialResult(ChallengeSolution challengeSolution) {
         if (!isSolutionFeasible(challengeSolution)) {
             return new PartialResult(null, 0);
         }
@@ -1383,35 +1757,34 @@ public class ChallengeSolver {
 
 
     protected boolean isSolutionFeasible(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
+        if (challengeSolution == null || challengeSolution.ordersCount() == 0 || challengeSolution.aislesCount() == 0) {
             return false;
         }
 
         int[] totalUnitsPicked = new int[nItems];
         int[] totalUnitsAvailable = new int[nItems];
+        int totalUnits = 0;
 
         // Calculate total units picked
-        for (int order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalUnitsPicked[entry.getKey()] += entry.getValue();
-            }
-        }
-
-        // Calculate total units available
-        for (int aisle : visitedAisles) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalUnitsAvailable[entry.getKey()] += entry.getValue();
+        for (int order = challengeSolution.nextOrder(0); order >= 0; order = challengeSolution.nextOrder(order + 1)) {
+            for (int p = instance.orderStart[order]; p < instance.orderStart[order + 1]; p++) {
+                totalUnitsPicked[instance.orderItems[p]] += instance.orderQuantities[p];
             }
+            totalUnits += statistics.orderUnits[order];
         }
 
         // Check if the total units picked are within bounds
-        int totalUnits = Arrays.stream(totalUnitsPicked).sum();
         if (totalUnits < waveSizeLB || totalUnits > waveSizeUB) {
             return false;
         }
 
+        // Calculate total units available
+        for (int aisle = challengeSolution.nextAisle(0); aisle >= 0; aisle = challengeSolution.nextAisle(aisle + 1)) {
+            for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+                totalUnitsAvailable[instance.aisleItems[p]] += instance.aisleQuantities[p];
+            }
+        }
+
         // Check if the units picked do not exceed the units available
         for (int i = 0; i < nItems; i++) {
             if (totalUnitsPicked[i] > totalUnitsAvailable[i]) {
@@ -1423,22 +1796,18 @@ public class ChallengeSolver {
     }
 
     protected double computeObjectiveFunction(ChallengeSolution challengeSolution) {
-        Set<Integer> selectedOrders = challengeSolution.orders();
-        Set<Integer> visitedAisles = challengeSolution.aisles();
-        if (selectedOrders == null || visitedAisles == null || selectedOrders.isEmpty() || visitedAisles.isEmpty()) {
+        if (challengeSolution == null || challengeSolution.ordersCount() == 0 || challengeSolution.aislesCount() == 0) {
             return 0.0;
         }
         int totalUnitsPicked = 0;
 
         // Calculate total units picked
-        for (int order : selectedOrders) {
-            totalUnitsPicked += orders.get(order).values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
+        for (int order = challengeSolution.nextOrder(0); order >= 0; order = challengeSolution.nextOrder(order + 1)) {
+            totalUnitsPicked += statistics.orderUnits[order];
         }
 
         // Calculate the number of visited aisles
-        int numVisitedAisles = visitedAisles.size();
+        int numVisitedAisles = challengeSolution.aislesCount();
 
         // Objective function: total units picked / number of visited aisles
         return (double) totalUnitsPicked / numVisitedAisles;
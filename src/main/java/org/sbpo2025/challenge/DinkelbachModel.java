@@ -0,0 +1,95 @@
+package org.sbpo2025.challenge;
+
+import java.util.List;
+
+import com.google.ortools.Loader;
+
+import com.google.ortools.linearsolver.MPConstraint;
+import com.google.ortools.linearsolver.MPObjective;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+
+/**
+ * Parametric model for the ratio units / aisles (Dinkelbach): max units - lambda * aisles over the
+ * original constraints. The model is built once, each solve(lambda) only rewrites the aisle
+ * coefficients of the objective. The last solution is passed as a hint for the next lambda.
+ */
+public class DinkelbachModel {
+    private final Solving solving;
+    private final MPSolver solver;
+    private final MPObjective objective;
+    private final List<MPVariable> selected_orders;
+    private final List<MPVariable> selected_aisles;
+    private final OrderClasses classes; // null: one variable per order
+
+    private ChallengeSolution previous; // last feasible solution, hint for the next lambda
+
+    private DinkelbachModel(Solving solving, MPSolver solver) {
+        this.solving = solving;
+        this.solver = solver;
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        this.classes = solving.orderClasses();
+        this.selected_orders = solving.getVariablesOrders(solver, classes);
+        this.selected_aisles = solving.getVariablesAisles(solver, solving.nAisles);
+
+        // at least one aisle, the ratio is undefined otherwise
+        MPConstraint some_aisle = solver.makeConstraint(1, solving.nAisles, "At least one aisle");
+        for (MPVariable y : selected_aisles) {
+            some_aisle.setCoefficient(y, 1);
+        }
+
+        // General problem constraints
+        solving.makeWaveBoundsConstraint(solver, classes, selected_orders, solving.waveSizeLB, solving.waveSizeUB);
+        solving.makeAvailableCapacityConstraint(solver, classes, selected_orders, selected_aisles);
+
+        // Objective, aisle coefficients set on each solve
+        this.objective = solver.objective();
+        int[] units = solving.orderUnits(classes);
+        for (int o = 0; o < selected_orders.size(); o++) {
+            objective.setCoefficient(selected_orders.get(o), units[o]);
+        }
+        objective.setMaximization();
+
+        if (solving.enableOutput) {
+            solver.enableOutput();
+        }
+
+        System.out.println("Dinkelbach model built in " + (System.nanoTime() - buildStart) / 1_000_000 + " ms");
+    }
+
+    /**
+     * @return the model, or null if SCIP is not available
+     */
+    public static DinkelbachModel create(Solving solving) {
+        Loader.loadNativeLibraries();
+        MPSolver solver = MPSolver.createSolver("SCIP");
+        if (solver == null) {
+            System.out.println("Could not create solver SCIP");
+            return null;
+        }
+        return new DinkelbachModel(solving, solver);
+    }
+
+    /**
+     * max units - lambda * aisles
+     * @param hint used when there is no previous solution (may be null)
+     * @return the solution with the parametric value F(lambda) as objective and its bound
+     *         (not normalized: F(lambda) <= 0 proves lambda is the optimal ratio)
+     */
+    public PartialResult solve(double lambda, long remainingTime, ChallengeSolution hint) {
+        for (MPVariable y : selected_aisles) {
+            objective.setCoefficient(y, -lambda);
+        }
+        solving.setHint(solver, classes, selected_orders, selected_aisles, previous != null ? previous : hint);
+        solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
+
+        PartialResult partialResult = solving.calculatePartialResult(solver, objective, classes, selected_orders, selected_aisles);
+        if (partialResult.partialSolution() != null) {
+            previous = partialResult.partialSolution();
+        }
+        return partialResult;
+    }
+}
@@ -0,0 +1,182 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Randomized cross-check of IncrementalEvaluator against the from-scratch ChallengeSolver checks.
+ * Each sequence starts empty and applies random moves (add/remove order, add/remove aisle, mostly
+ * orders that fit so feasible states are reached). After every move, isFeasible, objective,
+ * totalUnits and orderFits are compared with isSolutionFeasible / computeObjectiveFunction on the
+ * snapshot. At the end of each sequence the per-item slack, unpicked demand and deficit count are
+ * compared with values recomputed from the selection.
+ * Usage: EvaluatorCheck <sequences> <moves per sequence> <seed> <instance file>...
+ * Prints one CSV line per instance; exits with status 1 if any check failed.
+ */
+public class EvaluatorCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage: java -cp ... org.sbpo2025.challenge.EvaluatorCheck <sequences> <moves per sequence> <seed> <instance file>...");
+            return;
+        }
+        int sequences = Integer.parseInt(args[0]);
+        int moves = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+
+        long failures = 0;
+        StringBuilder csv = new StringBuilder("instance,sequences,moves,feasible_states,failures\n");
+        for (int i = 3; i < args.length; i++) {
+            InstanceData instance = MappedInstanceParser.parse(Path.of(args[i]));
+            String name = Path.of(args[i]).getFileName().toString();
+
+            Check check = new Check(instance, new SplittableRandom(seed));
+            for (int s = 0; s < sequences; s++) {
+                check.sequence(moves);
+            }
+            failures += check.failures;
+            csv.append(String.format("%s,%d,%d,%d,%d%n", name, sequences, check.moves, check.feasibleStates, check.failures));
+        }
+        System.out.print(csv);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static final class Check {
+        private final InstanceData instance;
+        private final InstanceStatistics statistics;
+        private final ChallengeSolver solver;
+        private final IncrementalEvaluator evaluator;
+        private final SplittableRandom random;
+        private long moves;
+        private long feasibleStates;
+        private long failures;
+
+        Check(InstanceData instance, SplittableRandom random) {
+            this.instance = instance;
+            this.statistics = new InstanceStatistics(instance);
+            this.solver = new ChallengeSolver(instance, statistics);
+            this.evaluator = new IncrementalEvaluator(instance, statistics);
+            this.random = random;
+        }
+
+        void sequence(int length) {
+            evaluator.reset();
+            for (int m = 0; m < length; m++) {
+                move();
+                moves++;
+                compareWithSolver();
+            }
+            compareState();
+        }
+
+        // one random move; orderFits is checked against the result of actually adding the order
+        private void move() {
+            int kind = random.nextInt(10);
+            if (kind < 2) {
+                evaluator.addAisle(random.nextInt(instance.nAisles));
+            } else if (kind < 3) {
+                evaluator.removeAisle(random.nextInt(instance.nAisles));
+            } else if (kind < 4) {
+                evaluator.removeOrder(random.nextInt(instance.nOrders));
+            } else {
+                int order = random.nextInt(instance.nOrders);
+                boolean selected = evaluator.hasOrder(order);
+                boolean fits = evaluator.orderFits(order);
+                int deficitBefore = evaluator.deficitItems();
+                if (!selected) {
+                    evaluator.addOrder(order);
+                    boolean fitsAfter = evaluator.deficitItems() == deficitBefore && evaluator.totalUnits() <= instance.waveSizeUB
+                        && noNewDeficit(order);
+                    if (fits != fitsAfter) {
+                        fail("orderFits(" + order + ") = " + fits + ", adding it gives " + fitsAfter);
+                    }
+                    if (kind >= 8 || !fits) {
+                        evaluator.removeOrder(order); // mostly keep only orders that fit
+                    }
+                } else if (fits) {
+                    fail("orderFits(" + order + ") = true for a selected order");
+                }
+            }
+        }
+
+        // every item of the order still has non-negative slack
+        private boolean noNewDeficit(int order) {
+            for (int p = instance.orderStart[order]; p < instance.orderStart[order + 1]; p++) {
+                if (evaluator.slack(instance.orderItems[p]) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void compareWithSolver() {
+            ChallengeSolution snapshot = evaluator.snapshot();
+            boolean feasible = solver.isSolutionFeasible(snapshot);
+            if (feasible) {
+                feasibleStates++;
+            }
+            if (evaluator.isFeasible() != feasible) {
+                fail("isFeasible = " + evaluator.isFeasible() + ", isSolutionFeasible = " + feasible);
+            }
+            double objective = solver.computeObjectiveFunction(snapshot);
+            if (Math.abs(evaluator.objective() - objective) > 1e-9) {
+                fail("objective = " + evaluator.objective() + ", computeObjectiveFunction = " + objective);
+            }
+            if (evaluator.totalUnits() != units(snapshot) || evaluator.ordersCount() != snapshot.ordersCount()
+                || evaluator.aislesCount() != snapshot.aislesCount()) {
+                fail("totals differ from the snapshot");
+            }
+        }
+
+        private int units(ChallengeSolution snapshot) {
+            int units = 0;
+            for (int o = snapshot.nextOrder(0); o >= 0; o = snapshot.nextOrder(o + 1)) {
+                units += statistics.orderUnits[o];
+            }
+            return units;
+        }
+
+        // slack, unpicked demand and deficit count recomputed from the selection
+        private void compareState() {
+            int[] slack = new int[instance.nItems];
+            int[] picked = new int[instance.nItems];
+            for (int a = 0; a < instance.nAisles; a++) {
+                if (evaluator.hasAisle(a)) {
+                    for (int p = instance.aisleStart[a]; p < instance.aisleStart[a + 1]; p++) {
+                        slack[instance.aisleItems[p]] += instance.aisleQuantities[p];
+                    }
+                }
+            }
+            for (int o = 0; o < instance.nOrders; o++) {
+                if (evaluator.hasOrder(o)) {
+                    for (int p = instance.orderStart[o]; p < instance.orderStart[o + 1]; p++) {
+                        slack[instance.orderItems[p]] -= instance.orderQuantities[p];
+                        picked[instance.orderItems[p]] += instance.orderQuantities[p];
+                    }
+                }
+            }
+            int deficitItems = 0;
+            for (int item = 0; item < instance.nItems; item++) {
+                if (slack[item] < 0) {
+                    deficitItems++;
+                }
+                if (evaluator.slack(item) != slack[item]) {
+                    fail("slack(" + item + ") = " + evaluator.slack(item) + ", expected " + slack[item]);
+                }
+                if (evaluator.unpickedDemand(item) != statistics.itemDemand[item] - picked[item]) {
+                    fail("unpickedDemand(" + item + ") = " + evaluator.unpickedDemand(item) + ", expected " + (statistics.itemDemand[item] - picked[item]));
+                }
+            }
+            if (evaluator.deficitItems() != deficitItems) {
+                fail("deficitItems = " + evaluator.deficitItems() + ", expected " + deficitItems);
+            }
+        }
+
+        private void fail(String message) {
+            if (failures++ < 10) {
+                System.out.println("Move " + moves + ": " + message);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.sbpo2025.challenge;
+
+import java.util.List;
+
+import com.google.ortools.Loader;
+
+import com.google.ortools.linearsolver.MPConstraint;
+import com.google.ortools.linearsolver.MPObjective;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+
+/**
+ * Problem 1.a kept as one persistent SCIP model: variables, wave bounds, capacity rows and
+ * objective are built once, and each solve(k) only moves the bounds of the "Allow K aisles"
+ * constraint. The last feasible solution (closest k) is passed as a hint for the next k, or the
+ * given incumbent on the first solve.
+ */
+public class FixedAislesModel {
+    private final Solving solving;
+    private final MPSolver solver;
+    private final MPObjective objective;
+    private final MPConstraint haveKAisles;
+    private final List<MPVariable> selected_orders;
+    private final List<MPVariable> selected_aisles;
+    private final OrderClasses classes; // null: one variable per order
+
+    private ChallengeSolution previous; // last feasible solution, hint for the next k
+
+    private FixedAislesModel(Solving solving, MPSolver solver) {
+        this.solving = solving;
+        this.solver = solver;
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        this.classes = solving.orderClasses();
+        this.selected_orders = solving.getVariablesOrders(solver, classes);
+        this.selected_aisles = solving.getVariablesAisles(solver, solving.nAisles);
+
+        // Unique sub problem constraint, bounds set on each solve
+        this.haveKAisles = solver.makeConstraint(0, solving.nAisles, "Allow K aisles");
+        for (MPVariable y : selected_aisles) {
+            haveKAisles.setCoefficient(y, 1);
+        }
+
+        // General problem constraints
+        solving.makeWaveBoundsConstraint(solver, classes, selected_orders, solving.waveSizeLB, solving.waveSizeUB);
+        solving.makeAvailableCapacityConstraint(solver, classes, selected_orders, selected_aisles);
+
+        // Objective
+        this.objective = solver.objective();
+        int[] units = solving.orderUnits(classes);
+        for (int o = 0; o < selected_orders.size(); o++) {
+            objective.setCoefficient(selected_orders.get(o), units[o]);
+        }
+        objective.setMaximization();
+
+        if (solving.enableOutput) {
+            solver.enableOutput();
+        }
+
+        System.out.println("problem1a persistent model built in " + (System.nanoTime() - buildStart) / 1_000_000 + " ms");
+    }
+
+    /**
+     * @return the model, or null if SCIP is not available
+     */
+    public static FixedAislesModel create(Solving solving) {
+        Loader.loadNativeLibraries();
+        MPSolver solver = MPSolver.createSolver("SCIP");
+        if (solver == null) {
+            System.out.println("Could not create solver SCIP");
+            return null;
+        }
+        return new FixedAislesModel(solving, solver);
+    }
+
+    /**
+     * Problem 1.a for k aisles on the persistent model
+     * @param incumbent best known solution, translated to k aisles as a hint if there is no previous k (may be null)
+     * @return the solution to the problem (optimal for the given k aisles), objective normalized by k
+     */
+    public PartialResult solve(int k, long remainingTime, ChallengeSolution incumbent) {
+        haveKAisles.setBounds(k, k);
+        solving.setHint(solver, classes, selected_orders, selected_aisles,
+            solving.hintForAisleCount(previous != null ? previous : incumbent, k));
+        solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
+
+        PartialResult partialResult = solving.calculatePartialResult(solver, objective, classes, selected_orders, selected_aisles);
+        if (partialResult.partialSolution() != null) {
+            previous = partialResult.partialSolution();
+        }
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / k, partialResult.bound() / k); // Normalize the objective value by k
+    }
+}
@@ -0,0 +1,204 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stateful feasibility and objective evaluator for a working solution.
+ * Keeps the per-item slack (supply of visited aisles minus demand of selected orders) and picked
+ * units (demand of selected orders), the number of items in deficit (negative slack), total units
+ * and aisle count. Moves cost O(size of the touched order or aisle); feasibility and objective
+ * are O(1).
+ */
+public class IncrementalEvaluator {
+    private final InstanceData instance;
+    private final InstanceStatistics statistics;
+
+    private final int[] slack;
+    private final int[] picked;
+    private final BitSet orders;
+    private final BitSet aisles;
+    private int deficitItems;
+    private int totalUnits;
+    private int ordersCount;
+    private int aislesCount;
+
+    public IncrementalEvaluator(InstanceData instance, InstanceStatistics statistics) {
+        this.instance = instance;
+        this.statistics = statistics;
+        this.slack = new int[instance.nItems];
+        this.picked = new int[instance.nItems];
+        this.orders = new BitSet(instance.nOrders);
+        this.aisles = new BitSet(instance.nAisles);
+    }
+
+    public void reset() {
+        Arrays.fill(slack, 0);
+        Arrays.fill(picked, 0);
+        orders.clear();
+        aisles.clear();
+        deficitItems = 0;
+        totalUnits = 0;
+        ordersCount = 0;
+        aislesCount = 0;
+    }
+
+    public void load(ChallengeSolution solution) {
+        reset();
+        for (int a = solution.nextAisle(0); a >= 0; a = solution.nextAisle(a + 1)) {
+            addAisle(a);
+        }
+        for (int o = solution.nextOrder(0); o >= 0; o = solution.nextOrder(o + 1)) {
+            addOrder(o);
+        }
+    }
+
+    // moves
+
+    public boolean addOrder(int order) {
+        if (orders.get(order)) return false;
+        orders.set(order);
+        ordersCount++;
+        totalUnits += statistics.orderUnits[order];
+        for (int p = instance.orderStart[order]; p < instance.orderStart[order + 1]; p++) {
+            changeSlack(instance.orderItems[p], -instance.orderQuantities[p]);
+            picked[instance.orderItems[p]] += instance.orderQuantities[p];
+        }
+        return true;
+    }
+
+    public boolean removeOrder(int order) {
+        if (!orders.get(order)) return false;
+        orders.clear(order);
+        ordersCount--;
+        totalUnits -= statistics.orderUnits[order];
+        for (int p = instance.orderStart[order]; p < instance.orderStart[order + 1]; p++) {
+            changeSlack(instance.orderItems[p], instance.orderQuantities[p]);
+            picked[instance.orderItems[p]] -= instance.orderQuantities[p];
+        }
+        return true;
+    }
+
+    public boolean addAisle(int aisle) {
+        if (aisles.get(aisle)) return false;
+        aisles.set(aisle);
+        aislesCount++;
+        for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+            changeSlack(instance.aisleItems[p], instance.aisleQuantities[p]);
+        }
+        return true;
+    }
+
+    public boolean removeAisle(int aisle) {
+        if (!aisles.get(aisle)) return false;
+        aisles.clear(aisle);
+        aislesCount--;
+        for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+            changeSlack(instance.aisleItems[p], -instance.aisleQuantities[p]);
+        }
+        return true;
+    }
+
+    private void changeSlack(int item, int delta) {
+        int before = slack[item];
+        int after = before + delta;
+        slack[item] = after;
+        if (before >= 0 && after < 0) {
+            deficitItems++;
+        } else if (before < 0 && after >= 0) {
+            deficitItems--;
+        }
+    }
+
+    // queries (no state change)
+
+    /**
+     * @return true if the order can be added without creating a deficit or exceeding the upper bound
+     */
+    public boolean orderFits(int order) {
+        if (orders.get(order) || totalUnits + statistics.orderUnits[order] > instance.waveSizeUB) {
+            return false;
+        }
+        for (int p = instance.orderStart[order]; p < instance.orderStart[order + 1]; p++) {
+            if (slack[instance.orderItems[p]] < instance.orderQuantities[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of items that would fall into deficit if the aisle were removed
+     */
+    public int deficitIfAisleRemoved(int aisle) {
+        int newDeficits = 0;
+        for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+            int s = slack[instance.aisleItems[p]];
+            if (s >= 0 && s < instance.aisleQuantities[p]) {
+                newDeficits++;
+            }
+        }
+        return newDeficits;
+    }
+
+    public boolean isFeasible() {
+        return deficitItems == 0 && ordersCount > 0 && aislesCount > 0
+            && totalUnits >= instance.waveSizeLB && totalUnits <= instance.waveSizeUB;
+    }
+
+    public double objective() {
+        return aislesCount == 0 ? 0.0 : (double) totalUnits / aislesCount;
+    }
+
+    public int slack(int item) {
+        return slack[item];
+    }
+
+    /**
+     * @return units of the item asked by the orders not selected
+     */
+    public int unpickedDemand(int item) {
+        return statistics.itemDemand[item] - picked[item];
+    }
+
+    public int deficitItems() {
+        return deficitItems;
+    }
+
+    public int totalUnits() {
+        return totalUnits;
+    }
+
+    public int ordersCount() {
+        return ordersCount;
+    }
+
+    public int aislesCount() {
+        return aislesCount;
+    }
+
+    public boolean hasOrder(int order) {
+        return orders.get(order);
+    }
+
+    public boolean hasAisle(int aisle) {
+        return aisles.get(aisle);
+    }
+
+    /**
+     * @return immutable snapshot of the current selection
+     */
+    public ChallengeSolution snapshot() {
+        return ChallengeSolution.of(orders, aisles);
+    }
+
+    /**
+     * @return the current selection as a PartialResult, or an empty result if infeasible
+     */
+    public PartialResult toPartialResult() {
+        if (!isFeasible()) {
+            return new PartialResult(null, 0);
+        }
+        return new PartialResult(snapshot(), objective());
+    }
+}
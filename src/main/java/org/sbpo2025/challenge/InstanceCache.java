@@ -0,0 +1,152 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary precompiled instance format, cached next to the .txt file.
+ *
+ * Layout (big endian):
+ *   header: magic, version, content hash (long), text size (long),
+ *           nOrders, nItems, nAisles, waveSizeLB, waveSizeUB, nnz orders, nnz aisles
+ *   blocks: order CSR (start, items, quantities), aisle CSR,
+ *           item -> orders index (start, orders, quantities), item -> aisles index
+ *
+ * The cache is reused only when the hash and size of the current .txt match the header.
+ */
+public class InstanceCache {
+    private static final int MAGIC = 0x574F5042; // "WOPB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 7 * 4;
+    public static final String EXTENSION = ".bin";
+
+    public static InstanceData load(Path inputFilePath) throws IOException {
+        long textSize = Files.size(inputFilePath);
+        long hash = contentHash(inputFilePath);
+        Path cachePath = cachePath(inputFilePath);
+
+        if (Files.exists(cachePath)) {
+            InstanceData instance = readBinary(cachePath, hash, textSize);
+            if (instance != null) {
+                return instance;
+            }
+            System.out.println("Instance cache outdated, rebuilding " + cachePath);
+        }
+
+        InstanceData instance = MappedInstanceParser.parse(inputFilePath);
+        try {
+            writeBinary(instance, cachePath, hash, textSize);
+        } catch (IOException e) {
+            // the cache is an optimization only, keep going with the parsed instance
+            System.err.println("Could not write instance cache " + cachePath + ": " + e.getMessage());
+        }
+        return instance;
+    }
+
+    public static Path cachePath(Path inputFilePath) {
+        String name = inputFilePath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return inputFilePath.resolveSibling(base + EXTENSION);
+    }
+
+    public static long contentHash(Path inputFilePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(inputFilePath, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - offset);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+            }
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * @return the cached instance, or null if the file does not match the given hash and size
+     */
+    public static InstanceData readBinary(Path cachePath, long hash, long textSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != hash || buffer.getLong() != textSize) {
+                return null;
+            }
+            int nOrders = buffer.getInt();
+            int nItems = buffer.getInt();
+            int nAisles = buffer.getInt();
+            int waveSizeLB = buffer.getInt();
+            int waveSizeUB = buffer.getInt();
+            int nnzOrders = buffer.getInt();
+            int nnzAisles = buffer.getInt();
+
+            long expected = HEADER_BYTES + 4L * ((nOrders + 1) + (nAisles + 1) + 2L * (nItems + 1)
+                    + 4L * nnzOrders + 4L * nnzAisles);
+            if (size != expected) {
+                return null;
+            }
+
+            IntBuffer ints = buffer.asIntBuffer();
+            return new InstanceData(nOrders, nItems, nAisles, waveSizeLB, waveSizeUB,
+                    getInts(ints, nOrders + 1), getInts(ints, nnzOrders), getInts(ints, nnzOrders),
+                    getInts(ints, nAisles + 1), getInts(ints, nnzAisles), getInts(ints, nnzAisles),
+                    getInts(ints, nItems + 1), getInts(ints, nnzOrders), getInts(ints, nnzOrders),
+                    getInts(ints, nItems + 1), getInts(ints, nnzAisles), getInts(ints, nnzAisles));
+        }
+    }
+
+    public static void writeBinary(InstanceData instance, Path cachePath, long hash, long textSize) throws IOException {
+        int nnzOrders = instance.orderStart[instance.nOrders];
+        int nnzAisles = instance.aisleStart[instance.nAisles];
+
+        // write to a temporary file first, so a concurrent reader never sees a partial cache
+        Path tmpPath = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmpPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(hash).putLong(textSize)
+                    .putInt(instance.nOrders).putInt(instance.nItems).putInt(instance.nAisles)
+                    .putInt(instance.waveSizeLB).putInt(instance.waveSizeUB)
+                    .putInt(nnzOrders).putInt(nnzAisles);
+            header.flip();
+            writeFully(channel, header);
+
+            int[][] blocks = {
+                instance.orderStart, instance.orderItems, instance.orderQuantities,
+                instance.aisleStart, instance.aisleItems, instance.aisleQuantities,
+                instance.itemOrderStart, instance.itemOrders, instance.itemOrderQuantities,
+                instance.itemAisleStart, instance.itemAisles, instance.itemAisleQuantities
+            };
+            for (int[] block : blocks) {
+                ByteBuffer bytes = ByteBuffer.allocate(4 * block.length);
+                bytes.asIntBuffer().put(block);
+                writeFully(channel, bytes);
+            }
+        }
+        Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int[] getInts(IntBuffer ints, int length) {
+        int[] values = new int[length];
+        ints.get(values);
+        return values;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable instance in compressed-sparse-row (CSR) form.
+ * The items of order o are orderItems[orderStart[o] .. orderStart[o+1]-1], with the matching
+ * quantities in orderQuantities (same layout for aisles).
+ * The transposed item index lists, for each item, the orders requesting it (itemOrder*) and the
+ * aisles stocking it (itemAisle*).
+ */
+public final class InstanceData {
+    public final int nOrders;
+    public final int nItems;
+    public final int nAisles;
+    public final int waveSizeLB;
+    public final int waveSizeUB;
+
+    public final int[] orderStart;
+    public final int[] orderItems;
+    public final int[] orderQuantities;
+
+    public final int[] aisleStart;
+    public final int[] aisleItems;
+    public final int[] aisleQuantities;
+
+    public final int[] itemOrderStart;
+    public final int[] itemOrders;
+    public final int[] itemOrderQuantities;
+
+    public final int[] itemAisleStart;
+    public final int[] itemAisles;
+    public final int[] itemAisleQuantities;
+
+    public InstanceData(
+        int nOrders, int nItems, int nAisles, int waveSizeLB, int waveSizeUB,
+        int[] orderStart, int[] orderItems, int[] orderQuantities,
+        int[] aisleStart, int[] aisleItems, int[] aisleQuantities) {
+        this(nOrders, nItems, nAisles, waveSizeLB, waveSizeUB,
+            orderStart, orderItems, orderQuantities,
+            aisleStart, aisleItems, aisleQuantities,
+            transpose(nOrders, nItems, orderStart, orderItems, orderQuantities),
+            transpose(nAisles, nItems, aisleStart, aisleItems, aisleQuantities));
+    }
+
+    private InstanceData(
+        int nOrders, int nItems, int nAisles, int waveSizeLB, int waveSizeUB,
+        int[] orderStart, int[] orderItems, int[] orderQuantities,
+        int[] aisleStart, int[] aisleItems, int[] aisleQuantities,
+        int[][] itemOrderIndex, int[][] itemAisleIndex) {
+        this(nOrders, nItems, nAisles, waveSizeLB, waveSizeUB,
+            orderStart, orderItems, orderQuantities,
+            aisleStart, aisleItems, aisleQuantities,
+            itemOrderIndex[0], itemOrderIndex[1], itemOrderIndex[2],
+            itemAisleIndex[0], itemAisleIndex[1], itemAisleIndex[2]);
+    }
+
+    /**
+     * Full constructor, used when the transposed index is already available (e.g. binary cache)
+     */
+    public InstanceData(
+        int nOrders, int nItems, int nAisles, int waveSizeLB, int waveSizeUB,
+        int[] orderStart, int[] orderItems, int[] orderQuantities,
+        int[] aisleStart, int[] aisleItems, int[] aisleQuantities,
+        int[] itemOrderStart, int[] itemOrders, int[] itemOrderQuantities,
+        int[] itemAisleStart, int[] itemAisles, int[] itemAisleQuantities) {
+        this.nOrders = nOrders;
+        this.nItems = nItems;
+        this.nAisles = nAisles;
+        this.waveSizeLB = waveSizeLB;
+        this.waveSizeUB = waveSizeUB;
+        this.orderStart = orderStart;
+        this.orderItems = orderItems;
+        this.orderQuantities = orderQuantities;
+        this.aisleStart = aisleStart;
+        this.aisleItems = aisleItems;
+        this.aisleQuantities = aisleQuantities;
+        this.itemOrderStart = itemOrderStart;
+        this.itemOrders = itemOrders;
+        this.itemOrderQuantities = itemOrderQuantities;
+        this.itemAisleStart = itemAisleStart;
+        this.itemAisles = itemAisles;
+        this.itemAisleQuantities = itemAisleQuantities;
+    }
+
+    // item -> rows index, returns {start, rows, quantities} (rows in increasing order)
+    private static int[][] transpose(int nRows, int nItems, int[] start, int[] index, int[] quantity) {
+        int nnz = start[nRows];
+        int[] itemStart = new int[nItems + 1];
+        for (int p = 0; p < nnz; p++) {
+            itemStart[index[p] + 1]++;
+        }
+        for (int i = 0; i < nItems; i++) {
+            itemStart[i + 1] += itemStart[i];
+        }
+        int[] next = Arrays.copyOf(itemStart, nItems);
+        int[] rows = new int[nnz];
+        int[] quantities = new int[nnz];
+        for (int r = 0; r < nRows; r++) {
+            for (int p = start[r]; p < start[r + 1]; p++) {
+                int q = next[index[p]]++;
+                rows[q] = r;
+                quantities[q] = quantity[p];
+            }
+        }
+        return new int[][] {itemStart, rows, quantities};
+    }
+
+    /**
+     * Adapter from the old List<Map<Integer, Integer>> representation
+     */
+    public static InstanceData fromMaps(List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) {
+        int[][] orderRows = toCsr(orders);
+        int[][] aisleRows = toCsr(aisles);
+        return new InstanceData(orders.size(), nItems, aisles.size(), waveSizeLB, waveSizeUB,
+            orderRows[0], orderRows[1], orderRows[2],
+            aisleRows[0], aisleRows[1], aisleRows[2]);
+    }
+
+    // returns {start, items, quantities}
+    private static int[][] toCsr(List<Map<Integer, Integer>> rows) {
+        int[] start = new int[rows.size() + 1];
+        for (int r = 0; r < rows.size(); r++) {
+            start[r + 1] = start[r] + rows.get(r).size();
+        }
+        int[] index = new int[start[rows.size()]];
+        int[] quantity = new int[start[rows.size()]];
+        for (int r = 0; r < rows.size(); r++) {
+            int p = start[r];
+            for (Map.Entry<Integer, Integer> entry : rows.get(r).entrySet()) {
+                index[p] = entry.getKey();
+                quantity[p] = entry.getValue();
+                p++;
+            }
+        }
+        return new int[][] {start, index, quantity};
+    }
+
+    // Map view (old List<Map<Integer, Integer>> representation)
+
+    public List<Map<Integer, Integer>> orderMaps() {
+        return toMaps(nOrders, orderStart, orderItems, orderQuantities);
+    }
+
+    public List<Map<Integer, Integer>> aisleMaps() {
+        return toMaps(nAisles, aisleStart, aisleItems, aisleQuantities);
+    }
+
+    private static List<Map<Integer, Integer>> toMaps(int nRows, int[] start, int[] index, int[] quantity) {
+        List<Map<Integer, Integer>> rows = new ArrayList<>(nRows);
+        for (int r = 0; r < nRows; r++) {
+            Map<Integer, Integer> row = new HashMap<>();
+            for (int p = start[r]; p < start[r + 1]; p++) {
+                row.put(index[p], quantity[p]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
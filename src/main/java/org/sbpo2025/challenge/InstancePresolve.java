@@ -0,0 +1,159 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Presolve of an instance before any greedy or model sees it. Removes:
+ *  - orders with more units than the wave size upper bound,
+ *  - orders asking more of an item than all the aisles together stock,
+ *  - items no remaining order asks for (dropped from the aisle rows),
+ *  - aisles that stock no remaining item.
+ * One pass is enough: removed aisles only stock dead items, so the supply of the remaining items
+ * does not change. Orders, items and aisles are renumbered in the reduced instance, and
+ * restore() maps a reduced solution back to the original indices.
+ */
+public class InstancePresolve {
+    private final InstanceData original;
+    private final InstanceData reduced;
+    private final int[] orderIndex;   // reduced order -> original order
+    private final int[] aisleIndex;   // reduced aisle -> original aisle
+
+    public final int removedOrdersWaveSize;
+    public final int removedOrdersSupply;
+    public final int removedItems;
+    public final int removedAisles;
+    public final long presolveTimeMs;
+
+    public InstancePresolve(InstanceData instance, InstanceStatistics statistics) {
+        long start = System.nanoTime();
+        this.original = instance;
+
+        // orders
+        int tooLarge = 0, unserviceable = 0;
+        BitSet keptOrders = new BitSet(instance.nOrders);
+        for (int o = 0; o < instance.nOrders; o++) {
+            if (statistics.orderUnits[o] > instance.waveSizeUB) {
+                tooLarge++;
+                continue;
+            }
+            boolean serviceable = true;
+            for (int p = instance.orderStart[o]; p < instance.orderStart[o + 1] && serviceable; p++) {
+                serviceable = instance.orderQuantities[p] <= statistics.itemSupply[instance.orderItems[p]];
+            }
+            if (!serviceable) {
+                unserviceable++;
+                continue;
+            }
+            keptOrders.set(o);
+        }
+        this.removedOrdersWaveSize = tooLarge;
+        this.removedOrdersSupply = unserviceable;
+
+        // items asked by a kept order, renumbered in order of appearance of the original ids
+        int[] itemMap = new int[instance.nItems];
+        Arrays.fill(itemMap, -1);
+        for (int o = keptOrders.nextSetBit(0); o >= 0; o = keptOrders.nextSetBit(o + 1)) {
+            for (int p = instance.orderStart[o]; p < instance.orderStart[o + 1]; p++) {
+                itemMap[instance.orderItems[p]] = 0;
+            }
+        }
+        int nItems = 0;
+        for (int i = 0; i < instance.nItems; i++) {
+            if (itemMap[i] == 0) {
+                itemMap[i] = nItems++;
+            }
+        }
+        this.removedItems = instance.nItems - nItems;
+
+        // aisles stocking at least one kept item
+        BitSet keptAisles = new BitSet(instance.nAisles);
+        for (int a = 0; a < instance.nAisles; a++) {
+            for (int p = instance.aisleStart[a]; p < instance.aisleStart[a + 1]; p++) {
+                if (itemMap[instance.aisleItems[p]] >= 0) {
+                    keptAisles.set(a);
+                    break;
+                }
+            }
+        }
+        this.removedAisles = instance.nAisles - keptAisles.cardinality();
+
+        this.orderIndex = keptOrders.stream().toArray();
+        this.aisleIndex = keptAisles.stream().toArray();
+        int[][] orderRows = compact(orderIndex, instance.orderStart, instance.orderItems, instance.orderQuantities, itemMap);
+        int[][] aisleRows = compact(aisleIndex, instance.aisleStart, instance.aisleItems, instance.aisleQuantities, itemMap);
+        this.reduced = new InstanceData(orderIndex.length, nItems, aisleIndex.length, instance.waveSizeLB, instance.waveSizeUB,
+            orderRows[0], orderRows[1], orderRows[2],
+            aisleRows[0], aisleRows[1], aisleRows[2]);
+
+        this.presolveTimeMs = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    public InstancePresolve(InstanceData instance) {
+        this(instance, new InstanceStatistics(instance));
+    }
+
+    // kept rows with their live items renumbered, returns {start, items, quantities}
+    static int[][] compact(int[] rows, int[] start, int[] index, int[] quantity, int[] itemMap) {
+        int[] newStart = new int[rows.length + 1];
+        for (int r = 0; r < rows.length; r++) {
+            int count = 0;
+            for (int p = start[rows[r]]; p < start[rows[r] + 1]; p++) {
+                if (itemMap[index[p]] >= 0) count++;
+            }
+            newStart[r + 1] = newStart[r] + count;
+        }
+        int[] newIndex = new int[newStart[rows.length]];
+        int[] newQuantity = new int[newStart[rows.length]];
+        int q = 0;
+        for (int row : rows) {
+            for (int p = start[row]; p < start[row + 1]; p++) {
+                if (itemMap[index[p]] >= 0) {
+                    newIndex[q] = itemMap[index[p]];
+                    newQuantity[q] = quantity[p];
+                    q++;
+                }
+            }
+        }
+        return new int[][] {newStart, newIndex, newQuantity};
+    }
+
+    /**
+     * @return the reduced instance, or the original one if nothing was removed or nothing is left
+     */
+    public InstanceData instance() {
+        return hasReduction() && reduced.nOrders > 0 && reduced.nAisles > 0 ? reduced : original;
+    }
+
+    public boolean hasReduction() {
+        return removedOrdersWaveSize + removedOrdersSupply + removedItems + removedAisles > 0;
+    }
+
+    /**
+     * Maps a solution of instance() back to the original indices
+     */
+    public ChallengeSolution restore(ChallengeSolution solution) {
+        if (solution == null || instance() == original) {
+            return solution;
+        }
+        BitSet orders = new BitSet(original.nOrders);
+        for (int o = solution.nextOrder(0); o >= 0; o = solution.nextOrder(o + 1)) {
+            orders.set(orderIndex[o]);
+        }
+        BitSet aisles = new BitSet(original.nAisles);
+        for (int a = solution.nextAisle(0); a >= 0; a = solution.nextAisle(a + 1)) {
+            aisles.set(aisleIndex[a]);
+        }
+        return ChallengeSolution.of(orders, aisles);
+    }
+
+    public void printReport() {
+        System.out.println("Presolve (" + presolveTimeMs + " ms): removed "
+            + (removedOrdersWaveSize + removedOrdersSupply) + "/" + original.nOrders + " orders ("
+            + removedOrdersWaveSize + " above the wave size UB, " + removedOrdersSupply + " above the item supply), "
+            + removedItems + "/" + original.nItems + " items, "
+            + removedAisles + "/" + original.nAisles + " aisles; nonzeros "
+            + (original.orderStart[original.nOrders] + original.aisleStart[original.nAisles]) + " -> "
+            + (reduced.orderStart[reduced.nOrders] + reduced.aisleStart[reduced.nAisles]));
+    }
+}
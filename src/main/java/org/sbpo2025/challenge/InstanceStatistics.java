@@ -0,0 +1,87 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Per-order, per-aisle and per-item totals of an instance, computed once at load time so the
+ * solver reads them in O(1) instead of re-summing the CSR rows.
+ */
+public final class InstanceStatistics {
+    public final int[] orderUnits;          // total units of each order
+    public final int[] orderItemCount;      // distinct items of each order
+    public final int[] aisleCapacity;       // total units stocked by each aisle
+    public final int[] aisleItemCount;      // distinct items of each aisle
+    public final int[] itemSupply;          // units of each item over all aisles
+    public final int[] itemDemand;          // units of each item over all orders
+    public final int[] aislesByCapacity;    // aisle ids, by decreasing capacity (ties by id)
+    public final int maxAisleItems;         // largest aisleItemCount, size of per-aisle permutation buffers
+    public final int maxItemOrders;         // most orders asking for one item, size of per-item permutation buffers
+    public final long totalUnits;           // sum of orderUnits
+    public final long totalCapacity;        // sum of aisleCapacity
+
+    public InstanceStatistics(InstanceData instance) {
+        this(instance, rowTotals(instance.nOrders, instance.orderStart, instance.orderQuantities),
+            rowTotals(instance.nAisles, instance.aisleStart, instance.aisleQuantities));
+    }
+
+    /**
+     * Uses order units and aisle capacities already computed by the loader
+     */
+    public InstanceStatistics(InstanceData instance, int[] orderUnits, int[] aisleCapacity) {
+        this.orderUnits = orderUnits;
+        this.aisleCapacity = aisleCapacity;
+
+        this.orderItemCount = new int[instance.nOrders];
+        for (int o = 0; o < instance.nOrders; o++) {
+            orderItemCount[o] = instance.orderStart[o + 1] - instance.orderStart[o];
+        }
+        this.aisleItemCount = new int[instance.nAisles];
+        for (int a = 0; a < instance.nAisles; a++) {
+            aisleItemCount[a] = instance.aisleStart[a + 1] - instance.aisleStart[a];
+        }
+
+        this.itemSupply = rowTotals(instance.nItems, instance.itemAisleStart, instance.itemAisleQuantities);
+        this.itemDemand = rowTotals(instance.nItems, instance.itemOrderStart, instance.itemOrderQuantities);
+
+        int maxItems = 0;
+        for (int count : aisleItemCount) {
+            maxItems = Math.max(maxItems, count);
+        }
+        this.maxAisleItems = maxItems;
+        int maxOrders = 0;
+        for (int i = 0; i < instance.nItems; i++) {
+            maxOrders = Math.max(maxOrders, instance.itemOrderStart[i + 1] - instance.itemOrderStart[i]);
+        }
+        this.maxItemOrders = maxOrders;
+
+        this.aislesByCapacity = new int[instance.nAisles];
+        // sort by (-capacity, id) packed in a long, avoiding boxed comparators
+        long[] keys = new long[instance.nAisles];
+        for (int a = 0; a < instance.nAisles; a++) {
+            keys[a] = ((long) (Integer.MAX_VALUE - aisleCapacity[a]) << 32) | a;
+        }
+        Arrays.sort(keys);
+        for (int r = 0; r < keys.length; r++) {
+            aislesByCapacity[r] = (int) keys[r];
+        }
+
+        long units = 0;
+        for (int u : orderUnits) units += u;
+        this.totalUnits = units;
+        long capacity = 0;
+        for (int c : aisleCapacity) capacity += c;
+        this.totalCapacity = capacity;
+    }
+
+    private static int[] rowTotals(int nRows, int[] start, int[] quantity) {
+        int[] totals = new int[nRows];
+        for (int r = 0; r < nRows; r++) {
+            int total = 0;
+            for (int p = start[r]; p < start[r + 1]; p++) {
+                total += quantity[p];
+            }
+            totals[r] = total;
+        }
+        return totals;
+    }
+}
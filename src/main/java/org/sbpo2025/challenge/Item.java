@@ -1,38 +1,28 @@
 package org.sbpo2025.challenge;
 
-import java.util.*;
-
 public class Item {
     public int id;
-    public Map<Integer, Integer> orders;
-    public Map<Integer, Integer> aisles;
-    public int stock;
-
-    public Item(int id, Map<Integer, Integer> orders, Map<Integer, Integer> aisles) {
+    // range of this item in the transposed index: orders in InstanceData.itemOrders[orderStart .. orderEnd-1],
+    // aisles in InstanceData.itemAisles[aisleStart .. aisleEnd-1]
+    public int orderStart;
+    public int orderEnd;
+    public int aisleStart;
+    public int aisleEnd;
+
+    public Item(int id, InstanceData instance) {
         this.id = id;
-        this.orders = orders;
-        this.aisles = aisles;
-        this.stock = 0;
-    }
-
-    public void addOrder(int orderId, int quantity) {
-        this.orders.put(orderId, quantity);
-    }
-
-    public void addAisle(int aisleId, int capacity) {
-        this.aisles.put(aisleId, capacity);
-    }
-
-    public void addStock(int stock) {
-        this.stock += stock;
+        this.orderStart = instance.itemOrderStart[id];
+        this.orderEnd = instance.itemOrderStart[id + 1];
+        this.aisleStart = instance.itemAisleStart[id];
+        this.aisleEnd = instance.itemAisleStart[id + 1];
     }
 
-    public void removeStock(int stock) {
-        this.stock -= stock;
+    public int ordersCount() {
+        return orderEnd - orderStart;
     }
 
-    public void resetStock() {
-        this.stock = 0;
+    public int aislesCount() {
+        return aisleEnd - aisleStart;
     }
 
 }
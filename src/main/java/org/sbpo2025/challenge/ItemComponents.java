@@ -0,0 +1,161 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Connected components of the order - item - aisle graph, found with a union-find over the
+ * Item index (an item joins every order asking for it and every aisle stocking it).
+ * Only components with at least one order and one aisle are kept, largest first. Each one has
+ * its own renumbered InstanceData with wave size bounds [0, UB], and restore() maps a component
+ * solution back to the original indices.
+ */
+public class ItemComponents {
+    private final List<Component> components = new ArrayList<>();
+
+    public static final class Component {
+        public final InstanceData instance;
+        private final int[] orderIndex;   // component order -> original order
+        private final int[] aisleIndex;   // component aisle -> original aisle
+
+        private Component(InstanceData instance, int[] orderIndex, int[] aisleIndex) {
+            this.instance = instance;
+            this.orderIndex = orderIndex;
+            this.aisleIndex = aisleIndex;
+        }
+
+        /**
+         * @return the part of a solution (original indices) inside this component, in component indices
+         */
+        public ChallengeSolution project(ChallengeSolution solution) {
+            BitSet orders = new BitSet(orderIndex.length);
+            for (int o = 0; o < orderIndex.length; o++) {
+                if (solution.hasOrder(orderIndex[o])) orders.set(o);
+            }
+            BitSet aisles = new BitSet(aisleIndex.length);
+            for (int a = 0; a < aisleIndex.length; a++) {
+                if (solution.hasAisle(aisleIndex[a])) aisles.set(a);
+            }
+            return ChallengeSolution.of(orders, aisles);
+        }
+
+        /**
+         * Adds the orders and aisles of a component solution, in original indices
+         */
+        public void restore(ChallengeSolution solution, BitSet orders, BitSet aisles) {
+            for (int o = solution.nextOrder(0); o >= 0; o = solution.nextOrder(o + 1)) {
+                orders.set(orderIndex[o]);
+            }
+            for (int a = solution.nextAisle(0); a >= 0; a = solution.nextAisle(a + 1)) {
+                aisles.set(aisleIndex[a]);
+            }
+        }
+    }
+
+    public ItemComponents(InstanceData instance, List<Item> items) {
+        int nOrders = instance.nOrders;
+        int nAisles = instance.nAisles;
+
+        // nodes: orders [0, nOrders), aisles [nOrders, nOrders + nAisles)
+        int[] parent = new int[nOrders + nAisles];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        for (Item item : items) {
+            int root = -1;
+            for (int p = item.orderStart; p < item.orderEnd; p++) {
+                root = union(parent, root, instance.itemOrders[p]);
+            }
+            for (int p = item.aisleStart; p < item.aisleEnd; p++) {
+                root = union(parent, root, nOrders + instance.itemAisles[p]);
+            }
+        }
+
+        // group by root, keeping components with orders and aisles
+        int[] component = new int[parent.length];
+        Arrays.fill(component, -1);
+        int[] orderCount = new int[parent.length];
+        int[] aisleCount = new int[parent.length];
+        for (int o = 0; o < nOrders; o++) orderCount[find(parent, o)]++;
+        for (int a = 0; a < nAisles; a++) aisleCount[find(parent, nOrders + a)]++;
+
+        List<Integer> roots = new ArrayList<>();
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] == v && orderCount[v] > 0 && aisleCount[v] > 0) {
+                roots.add(v);
+            }
+        }
+        roots.sort((u, v) -> Integer.compare(orderCount[v] + aisleCount[v], orderCount[u] + aisleCount[u]));
+        for (int c = 0; c < roots.size(); c++) {
+            component[roots.get(c)] = c;
+        }
+
+        // orders and aisles of each component, in increasing id
+        int[][] orderIndex = new int[roots.size()][];
+        int[][] aisleIndex = new int[roots.size()][];
+        for (int c = 0; c < roots.size(); c++) {
+            orderIndex[c] = new int[orderCount[roots.get(c)]];
+            aisleIndex[c] = new int[aisleCount[roots.get(c)]];
+        }
+        int[] nextOrder = new int[roots.size()];
+        int[] nextAisle = new int[roots.size()];
+        for (int o = 0; o < nOrders; o++) {
+            int c = component[find(parent, o)];
+            if (c >= 0) orderIndex[c][nextOrder[c]++] = o;
+        }
+        for (int a = 0; a < nAisles; a++) {
+            int c = component[find(parent, nOrders + a)];
+            if (c >= 0) aisleIndex[c][nextAisle[c]++] = a;
+        }
+
+        // items renumbered inside their component (an item belongs to a single component, so one map serves all)
+        int[] itemMap = new int[instance.nItems];
+        Arrays.fill(itemMap, -1);
+        int[] nItems = new int[roots.size()];
+        for (Item item : items) {
+            int node = item.orderEnd > item.orderStart ? instance.itemOrders[item.orderStart]
+                : item.aisleEnd > item.aisleStart ? nOrders + instance.itemAisles[item.aisleStart] : -1;
+            int c = node >= 0 ? component[find(parent, node)] : -1;
+            if (c >= 0) {
+                itemMap[item.id] = nItems[c]++;
+            }
+        }
+
+        for (int c = 0; c < roots.size(); c++) {
+            int[][] orderRows = InstancePresolve.compact(orderIndex[c], instance.orderStart, instance.orderItems, instance.orderQuantities, itemMap);
+            int[][] aisleRows = InstancePresolve.compact(aisleIndex[c], instance.aisleStart, instance.aisleItems, instance.aisleQuantities, itemMap);
+            InstanceData subInstance = new InstanceData(orderIndex[c].length, nItems[c], aisleIndex[c].length, 0, instance.waveSizeUB,
+                orderRows[0], orderRows[1], orderRows[2],
+                aisleRows[0], aisleRows[1], aisleRows[2]);
+            components.add(new Component(subInstance, orderIndex[c], aisleIndex[c]));
+        }
+    }
+
+    // joins node into the set of root (root -1: node starts the set), returns the root of the set
+    private static int union(int[] parent, int root, int node) {
+        int r = find(parent, node);
+        if (root < 0 || r == root) {
+            return r;
+        }
+        parent[r] = root;
+        return root;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    public int size() {
+        return components.size();
+    }
+
+    public Component get(int c) {
+        return components.get(c);
+    }
+}
@@ -0,0 +1,331 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Adaptive large neighbourhood search over the aisle selection.
+ * Each iteration destroys part of the current solution (random, related or least used aisles,
+ * plus the orders left in deficit), adds aisles back by the stock they offer to the demand not yet
+ * picked (one fewer, as many, or one more than removed, so the aisle count can move) and repairs
+ * the orders with a greedy fill or a time-boxed Solving.problem2c.
+ * Operators are chosen by roulette over adaptive weights (segment scores: new best 3, better than
+ * current 2, accepted 1). Acceptance is record-to-record: within deviation of the best objective.
+ */
+public class LargeNeighbourhoodSearch {
+    private static final String[] DESTROY = {"random", "related", "worst"};
+    private static final String[] REPAIR = {"greedy", "mip"};
+    private static final int SEGMENT = 50;           // iterations between weight updates
+    private static final double REACTION = 0.2;      // weight of the last segment in the update
+    private static final double MIN_WEIGHT = 0.05;
+
+    private final ChallengeSolver solver;
+    private final InstanceData instance;
+    private final IncrementalEvaluator evaluator;
+    private final SplittableRandom random;
+
+    private final double[] destroyWeights = {1, 1, 1};
+    private final double[] repairWeights = {1, 1};
+    private final double[] destroyScores = new double[DESTROY.length];
+    private final double[] repairScores = new double[REPAIR.length];
+    private final int[] destroyUses = new int[DESTROY.length];
+    private final int[] repairUses = new int[REPAIR.length];
+
+    private final int[] aisleBuffer;      // visited aisles, then the removed ones in the first positions
+    private final long[] aisleKeys;       // sort keys of the visited aisles
+    private final int[] relatedness;      // items shared with the seed aisle
+    private final int[] aisleStamp;       // aisles removed in this iteration
+    private final int[] orderStamp;       // orders already in the fill candidates
+    private final int[] candidates;       // orders to try in the greedy fill
+    private int stampValue;
+    private int candidateCount;
+
+    private int iterations;
+    private int improvements;
+
+    public LargeNeighbourhoodSearch(ChallengeSolver solver, long seed) {
+        this.solver = solver;
+        this.instance = solver.instance;
+        this.evaluator = new IncrementalEvaluator(instance, solver.statistics);
+        this.random = new SplittableRandom(seed);
+        this.aisleBuffer = new int[instance.nAisles];
+        this.aisleKeys = new long[instance.nAisles];
+        this.relatedness = new int[instance.nAisles];
+        this.aisleStamp = new int[instance.nAisles];
+        this.orderStamp = new int[instance.nOrders];
+        this.candidates = new int[instance.nOrders];
+    }
+
+    /**
+     * @param deadline System.nanoTime() at which the search stops
+     * @param upperBound bound on the objective: the search stops once the best solution reaches it
+     * @param maxStall iterations without a new best solution before stopping
+     * @param mipTimeLimit seconds of each problem2c repair
+     * @param deviation accepted relative distance to the best objective
+     * @return the best solution found (initial if nothing better)
+     */
+    public PartialResult run(PartialResult initial, long deadline, double upperBound, int maxStall, long mipTimeLimit, double deviation) {
+        if (initial.partialSolution() == null) {
+            return initial;
+        }
+        PartialResult best = initial;
+        PartialResult current = initial;
+        int stall = 0;
+
+        for (iterations = 0; stall < maxStall && System.nanoTime() < deadline && best.objValue() < upperBound - 1e-9; iterations++, stall++) {
+            evaluator.load(current.partialSolution());
+            stampValue++;
+            candidateCount = 0;
+
+            int k = evaluator.aislesCount();
+            int removed = Math.min(k, 1 + random.nextInt(Math.max(1, (k + 4) / 5))); // up to a fifth of the aisles
+            int destroy = roulette(destroyWeights);
+            int repair = roulette(repairWeights);
+
+            switch (destroy) {
+                case 0 -> destroyRandom(removed);
+                case 1 -> destroyRelated(removed);
+                default -> destroyWorst(removed);
+            }
+            for (int j = 0; j < removed; j++) {
+                dropDeficitOrders(aisleBuffer[j]);
+            }
+            int added = Math.max(removed + random.nextInt(3) - 1, evaluator.aislesCount() == 0 ? 1 : 0);
+            addAisles(added);
+
+            if (repair == 0 || !repairMip(mipTimeLimit, deadline)) {
+                fill();
+            }
+
+            // score and acceptance
+            PartialResult candidate = evaluator.toPartialResult();
+            double score = 0;
+            if (candidate.partialSolution() != null) {
+                if (candidate.objValue() > best.objValue() + 1e-9) {
+                    best = candidate;
+                    current = candidate;
+                    improvements++;
+                    stall = -1;
+                    score = 3;
+                    System.out.println(String.format("ALNS iteration %d (%s + %s): %.4f with %d aisles",
+                        iterations, DESTROY[destroy], REPAIR[repair], candidate.objValue(), evaluator.aislesCount()));
+                } else if (candidate.objValue() > current.objValue() + 1e-9) {
+                    current = candidate;
+                    score = 2;
+                } else if (candidate.objValue() >= best.objValue() * (1 - deviation)) {
+                    current = candidate;
+                    score = 1;
+                }
+            }
+            destroyScores[destroy] += score;
+            destroyUses[destroy]++;
+            repairScores[repair] += score;
+            repairUses[repair]++;
+            if ((iterations + 1) % SEGMENT == 0) {
+                updateWeights(destroyWeights, destroyScores, destroyUses);
+                updateWeights(repairWeights, repairScores, repairUses);
+            }
+        }
+        return best;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    public int improvements() {
+        return improvements;
+    }
+
+    public String weights() {
+        StringBuilder text = new StringBuilder();
+        for (int d = 0; d < DESTROY.length; d++) text.append(String.format("%s=%.2f ", DESTROY[d], destroyWeights[d]));
+        for (int r = 0; r < REPAIR.length; r++) text.append(String.format("%s=%.2f ", REPAIR[r], repairWeights[r]));
+        return text.toString().trim();
+    }
+
+    // destroy operators: the removed aisles are left in aisleBuffer[0, count)
+
+    private void destroyRandom(int count) {
+        int n = visitedAisles();
+        for (int j = 0; j < count; j++) {
+            swap(aisleBuffer, j, j + random.nextInt(n - j));
+            removeAisle(aisleBuffer[j]);
+        }
+    }
+
+    // a random seed aisle and the visited aisles sharing the most items with it
+    private void destroyRelated(int count) {
+        int n = visitedAisles();
+        int seed = aisleBuffer[random.nextInt(n)];
+        for (int p = instance.aisleStart[seed]; p < instance.aisleStart[seed + 1]; p++) {
+            int item = instance.aisleItems[p];
+            for (int q = instance.itemAisleStart[item]; q < instance.itemAisleStart[item + 1]; q++) {
+                relatedness[instance.itemAisles[q]]++;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            int a = aisleBuffer[j];
+            int shared = a == seed ? Integer.MAX_VALUE : relatedness[a];
+            aisleKeys[j] = ((long) -shared << 32) | a; // most shared first
+        }
+        for (int p = instance.aisleStart[seed]; p < instance.aisleStart[seed + 1]; p++) {
+            int item = instance.aisleItems[p];
+            for (int q = instance.itemAisleStart[item]; q < instance.itemAisleStart[item + 1]; q++) {
+                relatedness[instance.itemAisles[q]] = 0;
+            }
+        }
+        removeFirstKeys(n, count);
+    }
+
+    // visited aisles with the fewest used units (capacity minus the slack they leave), with noise
+    private void destroyWorst(int count) {
+        int n = visitedAisles();
+        for (int j = 0; j < n; j++) {
+            int a = aisleBuffer[j];
+            int used = 0;
+            for (int p = instance.aisleStart[a]; p < instance.aisleStart[a + 1]; p++) {
+                int slack = Math.max(0, evaluator.slack(instance.aisleItems[p]));
+                used += instance.aisleQuantities[p] - Math.min(instance.aisleQuantities[p], slack);
+            }
+            long noisy = (long) (used * (0.8 + 0.4 * random.nextDouble()));
+            aisleKeys[j] = (noisy << 32) | a;
+        }
+        removeFirstKeys(n, count);
+    }
+
+    private void removeFirstKeys(int n, int count) {
+        Arrays.sort(aisleKeys, 0, n);
+        for (int j = 0; j < count; j++) {
+            aisleBuffer[j] = (int) aisleKeys[j];
+            removeAisle(aisleBuffer[j]);
+        }
+    }
+
+    private int visitedAisles() {
+        int n = 0;
+        for (int a = 0; a < instance.nAisles; a++) {
+            if (evaluator.hasAisle(a)) {
+                aisleBuffer[n++] = a;
+            }
+        }
+        return n;
+    }
+
+    private void removeAisle(int aisle) {
+        evaluator.removeAisle(aisle);
+        aisleStamp[aisle] = stampValue;
+    }
+
+    // drop the orders of the aisle's items in deficit, and keep them as fill candidates
+    private void dropDeficitOrders(int aisle) {
+        for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+            int item = instance.aisleItems[p];
+            for (int q = instance.itemOrderStart[item]; q < instance.itemOrderStart[item + 1] && evaluator.slack(item) < 0; q++) {
+                int order = instance.itemOrders[q];
+                if (evaluator.removeOrder(order)) {
+                    addCandidate(order);
+                }
+            }
+        }
+    }
+
+    // aisles by useful stock for the demand not yet picked, one at a time; removed aisles stay out
+    private void addAisles(int count) {
+        for (int j = 0; j < count; j++) {
+            int bestAisle = -1;
+            long bestScore = -1;
+            for (int a = 0; a < instance.nAisles; a++) {
+                if (evaluator.hasAisle(a) || aisleStamp[a] == stampValue) {
+                    continue;
+                }
+                long score = 0;
+                for (int p = instance.aisleStart[a]; p < instance.aisleStart[a + 1]; p++) {
+                    int item = instance.aisleItems[p];
+                    int missing = evaluator.unpickedDemand(item) - Math.max(0, evaluator.slack(item));
+                    score += Math.min(instance.aisleQuantities[p], Math.max(0, missing));
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestAisle = a;
+                }
+            }
+            if (bestAisle < 0) {
+                return;
+            }
+            evaluator.addAisle(bestAisle);
+            for (int p = instance.aisleStart[bestAisle]; p < instance.aisleStart[bestAisle + 1]; p++) {
+                int item = instance.aisleItems[p];
+                for (int q = instance.itemOrderStart[item]; q < instance.itemOrderStart[item + 1]; q++) {
+                    addCandidate(instance.itemOrders[q]);
+                }
+            }
+        }
+    }
+
+    // repair operators
+
+    private void fill() {
+        for (int j = candidateCount - 1; j > 0; j--) {
+            swap(candidates, j, random.nextInt(j + 1));
+        }
+        for (int j = 0; j < candidateCount; j++) {
+            if (evaluator.orderFits(candidates[j])) {
+                evaluator.addOrder(candidates[j]);
+            }
+        }
+    }
+
+    // kept orders fixed, the rest chosen by problem2c over the new aisles; false if it found nothing
+    private boolean repairMip(long mipTimeLimit, long deadline) {
+        long seconds = Math.min(mipTimeLimit, (deadline - System.nanoTime()) / 1_000_000_000L);
+        if (seconds < 1 || evaluator.aislesCount() == 0) {
+            return false;
+        }
+        ChallengeSolution partial = evaluator.snapshot();
+        PartialResult result = solver.solving.problem2c(partial.aisles(), partial.orders(), seconds, partial);
+        if (result.partialSolution() == null) {
+            return false;
+        }
+        evaluator.load(result.partialSolution());
+        return true;
+    }
+
+    private void addCandidate(int order) {
+        if (orderStamp[order] != stampValue) {
+            orderStamp[order] = stampValue;
+            candidates[candidateCount++] = order;
+        }
+    }
+
+    // adaptive weights
+
+    private int roulette(double[] weights) {
+        double total = 0;
+        for (double w : weights) total += w;
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static void updateWeights(double[] weights, double[] scores, int[] uses) {
+        for (int i = 0; i < weights.length; i++) {
+            if (uses[i] > 0) {
+                weights[i] = Math.max(MIN_WEIGHT, (1 - REACTION) * weights[i] + REACTION * scores[i] / uses[i]);
+            }
+            scores[i] = 0;
+            uses[i] = 0;
+        }
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
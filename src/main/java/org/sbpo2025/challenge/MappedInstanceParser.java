@@ -0,0 +1,128 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Zero-copy parser: memory-maps the instance file and scans the bytes directly into CSR arrays,
+ * without creating intermediate Strings or boxed maps.
+ */
+public class MappedInstanceParser {
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private MappedInstanceParser(ByteBuffer buffer) {
+        this(buffer, 0, buffer.limit());
+    }
+
+    /**
+     * Scanner over the byte range [position, limit) of a shared buffer (absolute reads only, so
+     * several scanners can work on the same buffer concurrently)
+     */
+    MappedInstanceParser(ByteBuffer buffer, int position, int limit) {
+        this.buffer = buffer;
+        this.limit = limit;
+        this.position = position;
+    }
+
+    static MappedByteBuffer map(Path inputFilePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(inputFilePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Instance file too large to map: " + size + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    public static InstanceData parse(Path inputFilePath) throws IOException {
+        MappedByteBuffer buffer = map(inputFilePath);
+        return new MappedInstanceParser(buffer).read(buffer.limit());
+    }
+
+    private InstanceData read(long size) throws IOException {
+        int nOrders = nextInt();
+        int nItems = nextInt();
+        int nAisles = nextInt();
+
+        // initial guess for the number of non-zeros, grown on demand
+        int capacity = (int) Math.max(16, size / 16);
+
+        int[] orderStart = new int[nOrders + 1];
+        int[][] orderRows = readRows(nOrders, orderStart, capacity);
+
+        int[] aisleStart = new int[nAisles + 1];
+        int[][] aisleRows = readRows(nAisles, aisleStart, capacity);
+
+        int waveSizeLB = nextInt();
+        int waveSizeUB = nextInt();
+
+        return new InstanceData(nOrders, nItems, nAisles, waveSizeLB, waveSizeUB,
+                orderStart, orderRows[0], orderRows[1],
+                aisleStart, aisleRows[0], aisleRows[1]);
+    }
+
+    // reads nRows lines of "n item quantity ... item quantity", returns {items, quantities}
+    private int[][] readRows(int nRows, int[] start, int capacity) throws IOException {
+        int[] items = new int[capacity];
+        int[] quantities = new int[capacity];
+        int nnz = 0;
+        for (int r = 0; r < nRows; r++) {
+            start[r] = nnz;
+            int nPairs = nextInt();
+            if (nnz + nPairs > items.length) {
+                int newCapacity = Math.max(items.length * 2, nnz + nPairs);
+                items = Arrays.copyOf(items, newCapacity);
+                quantities = Arrays.copyOf(quantities, newCapacity);
+            }
+            for (int k = 0; k < nPairs; k++) {
+                items[nnz] = nextInt();
+                quantities[nnz] = nextInt();
+                nnz++;
+            }
+        }
+        start[nRows] = nnz;
+        return new int[][] {Arrays.copyOf(items, nnz), Arrays.copyOf(quantities, nnz)};
+    }
+
+    /**
+     * Skips whitespace; false if nothing is left before the limit
+     */
+    boolean hasNext() {
+        while (position < limit && Character.isWhitespace(buffer.get(position))) {
+            position++;
+        }
+        return position < limit;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int nextInt() throws IOException {
+        byte b = 0;
+        while (position < limit && ((b = buffer.get(position)) < '0' || b > '9') && b != '-') {
+            position++;
+        }
+        if (position >= limit) {
+            throw new IOException("Unexpected end of instance file");
+        }
+        boolean negative = b == '-';
+        if (negative) {
+            position++;
+        }
+        int value = 0;
+        while (position < limit && (b = buffer.get(position)) >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            position++;
+        }
+        return negative ? -value : value;
+    }
+}
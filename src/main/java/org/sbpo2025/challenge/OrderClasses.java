@@ -0,0 +1,114 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Orders grouped by identical content (same items with the same quantities). The models can use
+ * one integer variable per class, bounded by its multiplicity, instead of one boolean per order.
+ * Class c is represented by its first order; instance holds the representatives as orders (same
+ * items and aisles as the original instance), so its item transpose gives the class coefficients.
+ */
+public final class OrderClasses {
+    public final int nClasses;
+    public final InstanceData instance;   // representatives as orders
+    public final int[] units;             // units of one order of the class
+    public final int[] multiplicity;      // number of orders in the class
+    public final int[] classOf;           // order -> class
+
+    private final int[] classStart;       // members of class c: classOrders[classStart[c] .. classStart[c+1]-1]
+    private final int[] classOrders;
+
+    public OrderClasses(InstanceData instance, InstanceStatistics statistics) {
+        int nOrders = instance.nOrders;
+        this.classOf = new int[nOrders];
+
+        // sorted (item, quantity) pairs as key, the CSR rows keep the file order
+        Map<Key, Integer> classes = new HashMap<>();
+        int[] representatives = new int[nOrders];
+        int count = 0;
+        for (int o = 0; o < nOrders; o++) {
+            long[] pairs = new long[instance.orderStart[o + 1] - instance.orderStart[o]];
+            for (int p = instance.orderStart[o]; p < instance.orderStart[o + 1]; p++) {
+                pairs[p - instance.orderStart[o]] = ((long) instance.orderItems[p] << 32) | instance.orderQuantities[p];
+            }
+            Arrays.sort(pairs);
+            Integer c = classes.putIfAbsent(new Key(pairs), count);
+            if (c == null) {
+                c = count;
+                representatives[count++] = o;
+            }
+            classOf[o] = c;
+        }
+        this.nClasses = count;
+
+        // members, in increasing order id
+        this.multiplicity = new int[nClasses];
+        for (int o = 0; o < nOrders; o++) {
+            multiplicity[classOf[o]]++;
+        }
+        this.classStart = new int[nClasses + 1];
+        for (int c = 0; c < nClasses; c++) {
+            classStart[c + 1] = classStart[c] + multiplicity[c];
+        }
+        this.classOrders = new int[nOrders];
+        int[] next = Arrays.copyOf(classStart, nClasses);
+        for (int o = 0; o < nOrders; o++) {
+            classOrders[next[classOf[o]]++] = o;
+        }
+
+        // representatives as orders
+        this.units = new int[nClasses];
+        int[] orderStart = new int[nClasses + 1];
+        for (int c = 0; c < nClasses; c++) {
+            int o = representatives[c];
+            units[c] = statistics.orderUnits[o];
+            orderStart[c + 1] = orderStart[c] + instance.orderStart[o + 1] - instance.orderStart[o];
+        }
+        int[] orderItems = new int[orderStart[nClasses]];
+        int[] orderQuantities = new int[orderStart[nClasses]];
+        for (int c = 0; c < nClasses; c++) {
+            int o = representatives[c];
+            int length = instance.orderStart[o + 1] - instance.orderStart[o];
+            System.arraycopy(instance.orderItems, instance.orderStart[o], orderItems, orderStart[c], length);
+            System.arraycopy(instance.orderQuantities, instance.orderStart[o], orderQuantities, orderStart[c], length);
+        }
+        this.instance = new InstanceData(nClasses, instance.nItems, instance.nAisles, instance.waveSizeLB, instance.waveSizeUB,
+            orderStart, orderItems, orderQuantities,
+            instance.aisleStart, instance.aisleItems, instance.aisleQuantities);
+    }
+
+    /**
+     * @return number of orders of each class selected in the solution
+     */
+    public int[] counts(ChallengeSolution solution) {
+        int[] counts = new int[nClasses];
+        for (int o = solution.nextOrder(0); o >= 0; o = solution.nextOrder(o + 1)) {
+            counts[classOf[o]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Selects the first count orders of class c
+     */
+    public void select(int c, int count, BitSet orders) {
+        for (int p = classStart[c]; p < classStart[c] + Math.min(count, multiplicity[c]); p++) {
+            orders.set(classOrders[p]);
+        }
+    }
+
+    private record Key(long[] pairs) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(pairs, key.pairs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(pairs);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomized greedy order selection over the stock of a set of aisles (the "super-aisle"):
+ * items are visited in random order and, for each item, its orders in random order; an order is
+ * taken if every one of its items has enough stock left and the wave stays within the upper bound.
+ * Stock, permutations and selection are primitive buffers allocated once, so select() allocates
+ * nothing. One selector per thread.
+ */
+public class OrderSelector {
+    private final InstanceData instance;
+    private final InstanceStatistics statistics;
+
+    private final int[] stock;             // remaining units of each item
+    private final int[] itemPermutation;   // item ids, refilled and shuffled on every select
+    private final int[] orderPositions;    // positions of the current item in the item-order transpose
+    private final BitSet selected;
+    private int waveSize;
+
+    public OrderSelector(InstanceData instance, InstanceStatistics statistics) {
+        this.instance = instance;
+        this.statistics = statistics;
+        this.stock = new int[instance.nItems];
+        this.itemPermutation = new int[instance.nItems];
+        this.orderPositions = new int[statistics.maxItemOrders];
+        this.selected = new BitSet(instance.nOrders);
+    }
+
+    /**
+     * Stock = supply of the given aisles
+     */
+    public void setStock(BitSet aisles) {
+        Arrays.fill(stock, 0);
+        for (int a = aisles.nextSetBit(0); a >= 0; a = aisles.nextSetBit(a + 1)) {
+            addAisle(a);
+        }
+    }
+
+    private void addAisle(int aisle) {
+        for (int p = instance.aisleStart[aisle]; p < instance.aisleStart[aisle + 1]; p++) {
+            stock[instance.aisleItems[p]] += instance.aisleQuantities[p];
+        }
+    }
+
+    /**
+     * Consumes the stock set by setStock
+     * @return the selected orders (internal buffer, valid until the next call)
+     */
+    public BitSet select(RandomGenerator random) {
+        selected.clear();
+        waveSize = 0;
+
+        ChallengeSolver.fillShuffled(itemPermutation, 0, instance.nItems, random);
+        for (int item : itemPermutation) {
+            if (stock[item] == 0) {
+                continue;
+            }
+            int count = ChallengeSolver.fillShuffled(orderPositions, instance.itemOrderStart[item], instance.itemOrderStart[item + 1], random);
+
+            for (int i = 0; i < count; i++) {
+                int q = orderPositions[i];
+                int orderId = instance.itemOrders[q];
+                if (selected.get(orderId) || stock[item] < instance.itemOrderQuantities[q]
+                        || waveSize + statistics.orderUnits[orderId] > instance.waveSizeUB) {
+                    continue;
+                }
+                if (!enoughStock(orderId)) {
+                    continue;
+                }
+
+                selected.set(orderId);
+                for (int p = instance.orderStart[orderId]; p < instance.orderStart[orderId + 1]; p++) {
+                    stock[instance.orderItems[p]] -= instance.orderQuantities[p];
+                }
+                waveSize += statistics.orderUnits[orderId];
+            }
+        }
+        return selected;
+    }
+
+    public int waveSize() {
+        return waveSize;
+    }
+
+    private boolean enoughStock(int orderId) {
+        for (int p = instance.orderStart[orderId]; p < instance.orderStart[orderId + 1]; p++) {
+            if (stock[instance.orderItems[p]] < instance.orderQuantities[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
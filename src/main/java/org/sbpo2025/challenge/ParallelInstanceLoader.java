@@ -0,0 +1,352 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pipelined loader for large instances: the order and aisle lines are split into byte ranges parsed
+ * on a fork-join pool. Each task seeks to its approximate offset and scans forward to the next line,
+ * so no thread indexes the file before parsing starts. Each chunk computes its row totals (order
+ * units, aisle capacities) and item counts while parsing; row numbers are assigned as the chunks
+ * complete in file order, and the order transpose is built while aisle chunks are still running.
+ */
+public class ParallelInstanceLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    // results available after load
+    private int[] orderUnits;
+    private int[] aisleCapacity;
+
+    // stage timings (milliseconds, measured from the start of load)
+    private double mapTime;
+    private double headerTime;
+    private double ordersParsedTime;
+    private double aislesParsedTime;
+    private double ordersIndexedTime;
+    private double aislesIndexedTime;
+    private double totalTime;
+
+    public ParallelInstanceLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    public ParallelInstanceLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public InstanceData load(Path inputFilePath) throws IOException {
+        long start = System.nanoTime();
+        MappedByteBuffer buffer = MappedInstanceParser.map(inputFilePath);
+        mapTime = elapsed(start);
+
+        // header (first line) and wave bounds (last line); the rows are the bytes in between
+        MappedInstanceParser header = new MappedInstanceParser(buffer, 0, buffer.limit());
+        int nOrders = header.nextInt();
+        int nItems = header.nextInt();
+        int nAisles = header.nextInt();
+        int bodyStart = nextLine(buffer, header.position(), buffer.limit());
+        int bodyEnd = lastLine(buffer);
+        MappedInstanceParser bounds = new MappedInstanceParser(buffer, bodyEnd, buffer.limit());
+        int waveSizeLB = bounds.nextInt();
+        int waveSizeUB = bounds.nextInt();
+        headerTime = elapsed(start);
+
+        // byte ranges; each task moves both of its ends to the next line start
+        long bodyBytes = Math.max(0, bodyEnd - bodyStart);
+        int nChunks = (int) Math.max(1, Math.min(4L * pool.getParallelism(), bodyBytes / MIN_CHUNK_BYTES));
+        List<CompletableFuture<Chunk>> futures = new ArrayList<>(nChunks);
+        for (int c = 0; c < nChunks; c++) {
+            int from = (int) (bodyStart + bodyBytes * c / nChunks);
+            int to = (int) (bodyStart + bodyBytes * (c + 1) / nChunks);
+            boolean last = c == nChunks - 1;
+            futures.add(CompletableFuture.supplyAsync(() -> parseChunk(buffer, from, to, last, bodyEnd, nItems), pool));
+        }
+
+        // row numbers in file order; the orders are complete once the rows before a chunk reach nOrders
+        List<Chunk> chunks = new ArrayList<>(nChunks);
+        CompletableFuture<List<Chunk>> orderChunks = new CompletableFuture<>();
+        if (nOrders == 0) {
+            orderChunks.complete(List.of());
+        }
+        CompletableFuture<Integer> rows = CompletableFuture.completedFuture(0);
+        for (CompletableFuture<Chunk> future : futures) {
+            rows = rows.thenCombine(future, (firstRow, chunk) -> {
+                chunk.firstRow = firstRow;
+                chunks.add(chunk);
+                int next = firstRow + chunk.nRows;
+                if (firstRow < nOrders && next >= nOrders) {
+                    orderChunks.complete(List.copyOf(chunks));
+                }
+                return next;
+            });
+        }
+        rows.whenComplete((total, failure) -> {
+            if (failure != null) {
+                orderChunks.completeExceptionally(failure);
+            }
+        });
+        CompletableFuture<List<Chunk>> allChunks = rows.thenApply(total -> {
+            if (total != nOrders + nAisles) {
+                throw new UncheckedIOException(new IOException("Expected " + (nOrders + nAisles) + " order and aisle lines, found " + total));
+            }
+            return chunks;
+        });
+
+        CompletableFuture<Block> orderBlock = orderChunks.thenApplyAsync(parsed -> {
+            ordersParsedTime = elapsed(start);
+            Block block = assemble(parsed, 0, nOrders, nItems);
+            ordersIndexedTime = elapsed(start);
+            return block;
+        }, pool);
+        CompletableFuture<Block> aisleBlock = allChunks.thenApplyAsync(parsed -> {
+            aislesParsedTime = elapsed(start);
+            Block block = assemble(parsed, nOrders, nAisles, nItems);
+            aislesIndexedTime = elapsed(start);
+            return block;
+        }, pool);
+
+        Block orders;
+        Block aisles;
+        try {
+            aisles = aisleBlock.join();
+            orders = orderBlock.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+        orderUnits = orders.totals;
+        aisleCapacity = aisles.totals;
+        totalTime = elapsed(start);
+
+        return new InstanceData(nOrders, nItems, nAisles, waveSizeLB, waveSizeUB,
+            orders.start, orders.items, orders.quantities,
+            aisles.start, aisles.items, aisles.quantities,
+            orders.itemStart, orders.itemRows, orders.itemQuantities,
+            aisles.itemStart, aisles.itemRows, aisles.itemQuantities);
+    }
+
+    /**
+     * @return units of each order, computed while parsing (for InstanceStatistics)
+     */
+    public int[] getOrderUnits() {
+        return orderUnits;
+    }
+
+    /**
+     * @return capacity of each aisle, computed while parsing (for InstanceStatistics)
+     */
+    public int[] getAisleCapacity() {
+        return aisleCapacity;
+    }
+
+    public void printTimings() {
+        System.out.println(String.format("Load timings (ms from start, parallelism %d):", pool.getParallelism()));
+        System.out.println(String.format("  map file        %8.2f", mapTime));
+        System.out.println(String.format("  header, bounds  %8.2f", headerTime));
+        System.out.println(String.format("  orders parsed   %8.2f", ordersParsedTime));
+        System.out.println(String.format("  orders indexed  %8.2f", ordersIndexedTime));
+        System.out.println(String.format("  aisles parsed   %8.2f", aislesParsedTime));
+        System.out.println(String.format("  aisles indexed  %8.2f", aislesIndexedTime));
+        System.out.println(String.format("  total           %8.2f", totalTime));
+    }
+
+    // start of the first line at or after p (p itself if a line starts there), at most limit
+    private static int nextLine(MappedByteBuffer buffer, int p, int limit) {
+        if (p > 0 && p < limit && buffer.get(p - 1) != '\n') {
+            while (p < limit && buffer.get(p) != '\n') {
+                p++;
+            }
+            p++;
+        }
+        return Math.min(p, limit);
+    }
+
+    // start of the last non-empty line
+    private static int lastLine(MappedByteBuffer buffer) {
+        int p = buffer.limit();
+        while (p > 0 && Character.isWhitespace(buffer.get(p - 1))) {
+            p--;
+        }
+        while (p > 0 && buffer.get(p - 1) != '\n') {
+            p--;
+        }
+        return p;
+    }
+
+    private static Chunk parseChunk(MappedByteBuffer buffer, int from, int to, boolean last, int bodyEnd, int nItems) {
+        int begin = nextLine(buffer, from, bodyEnd);
+        int end = last ? bodyEnd : nextLine(buffer, to, bodyEnd);
+        MappedInstanceParser parser = new MappedInstanceParser(buffer, begin, end);
+        Chunk chunk = new Chunk(nItems, Math.max(16, (end - begin) / 8));
+        try {
+            int nnz = 0;
+            while (parser.hasNext()) {
+                chunk.ensureRows(chunk.nRows + 1);
+                chunk.start[chunk.nRows] = nnz;
+                int nPairs = parser.nextInt();
+                chunk.ensureCapacity(nnz + nPairs);
+                int total = 0;
+                for (int k = 0; k < nPairs; k++) {
+                    int item = parser.nextInt();
+                    int quantity = parser.nextInt();
+                    chunk.items[nnz] = item;
+                    chunk.quantities[nnz] = quantity;
+                    chunk.itemCounts[item]++;
+                    total += quantity;
+                    nnz++;
+                }
+                chunk.totals[chunk.nRows++] = total;
+            }
+            chunk.start[chunk.nRows] = nnz;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk;
+    }
+
+    // concatenate the rows [firstRow, firstRow + nRows) of the chunks into one CSR block and scatter them into the item transpose
+    private Block assemble(List<Chunk> chunks, int firstRow, int nRows, int nItems) {
+        // parts of the chunks inside the block; a chunk split between orders and aisles is recounted
+        List<Part> parts = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            int lo = Math.max(0, firstRow - chunk.firstRow);
+            int hi = Math.min(chunk.nRows, firstRow + nRows - chunk.firstRow);
+            if (lo >= hi) {
+                continue;
+            }
+            int[] counts = chunk.itemCounts;
+            if (lo > 0 || hi < chunk.nRows) {
+                counts = new int[nItems];
+                for (int p = chunk.start[lo]; p < chunk.start[hi]; p++) {
+                    counts[chunk.items[p]]++;
+                }
+            }
+            parts.add(new Part(chunk, lo, hi, counts));
+        }
+
+        Block block = new Block();
+        block.start = new int[nRows + 1];
+        block.totals = new int[nRows];
+        block.itemStart = new int[nItems + 1];
+
+        int[] partOffset = new int[parts.size() + 1];
+        for (int c = 0; c < parts.size(); c++) {
+            Part part = parts.get(c);
+            partOffset[c + 1] = partOffset[c] + part.chunk.start[part.hi] - part.chunk.start[part.lo];
+            for (int i = 0; i < nItems; i++) {
+                block.itemStart[i + 1] += part.counts[i];
+            }
+        }
+        for (int i = 0; i < nItems; i++) {
+            block.itemStart[i + 1] += block.itemStart[i];
+        }
+        // per part first free slot of each item, so parts can scatter independently
+        int[] next = Arrays.copyOf(block.itemStart, nItems);
+        for (Part part : parts) {
+            int[] counts = part.counts;
+            for (int i = 0; i < nItems; i++) {
+                int count = counts[i];
+                counts[i] = next[i];
+                next[i] += count;
+            }
+        }
+
+        int nnz = partOffset[parts.size()];
+        block.start[nRows] = nnz;
+        block.items = new int[nnz];
+        block.quantities = new int[nnz];
+        block.itemRows = new int[nnz];
+        block.itemQuantities = new int[nnz];
+
+        List<CompletableFuture<Void>> copies = new ArrayList<>();
+        for (int c = 0; c < parts.size(); c++) {
+            Part part = parts.get(c);
+            int offset = partOffset[c];
+            copies.add(CompletableFuture.runAsync(() -> scatter(part, offset, firstRow, block), pool));
+        }
+        CompletableFuture.allOf(copies.toArray(new CompletableFuture<?>[0])).join();
+        return block;
+    }
+
+    private static void scatter(Part part, int offset, int firstRow, Block block) {
+        Chunk chunk = part.chunk;
+        int base = chunk.start[part.lo];
+        int nnz = chunk.start[part.hi] - base;
+        int firstBlockRow = chunk.firstRow + part.lo - firstRow;
+        System.arraycopy(chunk.items, base, block.items, offset, nnz);
+        System.arraycopy(chunk.quantities, base, block.quantities, offset, nnz);
+        System.arraycopy(chunk.totals, part.lo, block.totals, firstBlockRow, part.hi - part.lo);
+        int[] next = part.counts; // already turned into slots by assemble
+        for (int r = part.lo; r < part.hi; r++) {
+            int row = firstBlockRow + r - part.lo;
+            block.start[row] = offset + chunk.start[r] - base;
+            for (int p = chunk.start[r]; p < chunk.start[r + 1]; p++) {
+                int q = next[chunk.items[p]]++;
+                block.itemRows[q] = row;
+                block.itemQuantities[q] = chunk.quantities[p];
+            }
+        }
+    }
+
+    private static double elapsed(long start) {
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static final class Chunk {
+        final int[] itemCounts;
+        int firstRow;    // set once the chunks before it are parsed
+        int nRows;
+        int[] start;
+        int[] totals;
+        int[] items;
+        int[] quantities;
+
+        Chunk(int nItems, int capacity) {
+            this.itemCounts = new int[nItems];
+            this.start = new int[65];
+            this.totals = new int[64];
+            this.items = new int[capacity];
+            this.quantities = new int[capacity];
+        }
+
+        void ensureRows(int rows) {
+            if (rows > totals.length) {
+                int newRows = Math.max(totals.length * 2, rows);
+                totals = Arrays.copyOf(totals, newRows);
+                start = Arrays.copyOf(start, newRows + 1);
+            }
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity > items.length) {
+                int newCapacity = Math.max(items.length * 2, capacity);
+                items = Arrays.copyOf(items, newCapacity);
+                quantities = Arrays.copyOf(quantities, newCapacity);
+            }
+        }
+    }
+
+    // rows [lo, hi) of a chunk inside one block, with their item counts
+    private record Part(Chunk chunk, int lo, int hi, int[] counts) {}
+
+    private static final class Block {
+        int[] start;
+        int[] items;
+        int[] quantities;
+        int[] totals;
+        int[] itemStart;
+        int[] itemRows;
+        int[] itemQuantities;
+    }
+}
@@ -0,0 +1,150 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-start randomized greedy (one start: grow the ranked aisles one by one, adding single-item
+ * orders of each new aisle in random order) run by several threads until a common deadline or a
+ * total number of starts; solveRandomGreedySelection is the one-thread case.
+ * Each worker owns its IncrementalEvaluator, permutation buffers and SplittableRandom stream (split
+ * from one seed); the instance data is only read. Improvements are published to a shared
+ * AtomicReference with compare-and-set, and workers read it to cut a start early (UB / k <= best).
+ */
+public class ParallelRandomGreedy {
+    private final ChallengeSolver solver;
+    private final InstanceData instance;
+    private final InstanceStatistics statistics;
+    private final int threads;
+
+    private final AtomicReference<PartialResult> best = new AtomicReference<>();
+    private final LongAdder starts = new LongAdder();
+    private final AtomicLong startsLeft = new AtomicLong();
+
+    public ParallelRandomGreedy(ChallengeSolver solver, int threads) {
+        this.solver = solver;
+        this.instance = solver.instance;
+        this.statistics = solver.statistics;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param deadline System.nanoTime() at which every worker stops
+     * @return the best of the initial solution and every start
+     */
+    public PartialResult run(PartialResult initial, long deadline, long seed) {
+        return run(initial, deadline, seed, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxStarts starts over all workers, each claims one before running it
+     */
+    public PartialResult run(PartialResult initial, long deadline, long seed, long maxStarts) {
+        best.set(initial);
+        starts.reset();
+        startsLeft.set(maxStarts);
+
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<Void>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = root.split();
+            workers.add(() -> {
+                work(random, deadline);
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> future : pool.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("Parallel greedy failed: " + e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        return best.get();
+    }
+
+    public long starts() {
+        return starts.sum();
+    }
+
+    // thread-confined state, allocated once per worker
+    private void work(SplittableRandom random, long deadline) {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(instance, statistics);
+        int[] itemPositions = new int[statistics.maxAisleItems];
+        int[] orderPositions = new int[statistics.maxItemOrders];
+
+        while (System.nanoTime() < deadline && startsLeft.getAndDecrement() > 0) {
+            start(evaluator, random, itemPositions, orderPositions, deadline);
+            starts.increment();
+        }
+    }
+
+    private void start(IncrementalEvaluator evaluator, SplittableRandom random, int[] itemPositions, int[] orderPositions, long deadline) {
+        evaluator.reset();
+        int waveSize = 0;
+
+        for (int k = 1; k <= instance.nAisles; k++) {
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            double bestObjective = best.get().objValue();
+            if (waveSize >= instance.waveSizeLB && (double) instance.waveSizeUB / k <= bestObjective) {
+                break; // no k' >= k can improve
+            }
+
+            int aisle = solver.rankedAisle(k);
+            if (aisle == -1) {
+                break;
+            }
+            evaluator.addAisle(aisle);
+
+            int itemCount = ChallengeSolver.fillShuffled(itemPositions, instance.aisleStart[aisle], instance.aisleStart[aisle + 1], random);
+            for (int i = 0; i < itemCount; i++) { // for item in aisle
+                int p = itemPositions[i];
+                int item = instance.aisleItems[p];
+                int capacity = instance.aisleQuantities[p];
+
+                int orderCount = ChallengeSolver.fillShuffled(orderPositions, instance.itemOrderStart[item], instance.itemOrderStart[item + 1], random);
+                for (int j = 0; j < orderCount; j++) { // for order with this item
+                    int q = orderPositions[j];
+                    int orderId = instance.itemOrders[q];
+                    int orderQuantity = instance.itemOrderQuantities[q];
+
+                    if (waveSize + orderQuantity > instance.waveSizeUB) {
+                        break;
+                    }
+                    // Check if the order can be fulfilled
+                    if (statistics.orderItemCount[orderId] > 1 || capacity < orderQuantity) {
+                        continue;
+                    }
+                    if (evaluator.addOrder(orderId)) {
+                        capacity -= orderQuantity;
+                        waveSize += orderQuantity;
+                    }
+                }
+            }
+
+            if (waveSize >= instance.waveSizeLB && evaluator.isFeasible() && evaluator.objective() > bestObjective) {
+                publish(evaluator.toPartialResult());
+            }
+        }
+    }
+
+    // lock-free: retried compare-and-set until the candidate is stored or a better one is there
+    private void publish(PartialResult candidate) {
+        best.accumulateAndGet(candidate, (current, next) -> next.objValue() > current.objValue() ? next : current);
+    }
+}
@@ -1,4 +1,23 @@
 package org.sbpo2025.challenge;
 
-public record PartialResult(ChallengeSolution partialSolution, double objValue) {
+/**
+ * bound: best bound reported by the solver, in the same units as objValue. Equal to objValue for
+ * optimal solver results, +infinity for heuristic results (no bound known).
+ */
+public record PartialResult(ChallengeSolution partialSolution, double objValue, double bound) {
+
+    public PartialResult(ChallengeSolution partialSolution, double objValue) {
+        this(partialSolution, objValue, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return relative gap between the objective value and the bound (0 if proven optimal)
+     */
+    public double gap() {
+        if (Double.isInfinite(bound) || Double.isNaN(bound)) {
+            return Double.POSITIVE_INFINITY; // no useful bound (e.g. minimization bound still 0)
+        }
+        double difference = Math.abs(bound - objValue);
+        return difference == 0 ? 0 : difference / Math.max(Math.abs(bound), 1e-9);
+    }
 }
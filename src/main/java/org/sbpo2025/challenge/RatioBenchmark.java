@@ -0,0 +1,62 @@
+package org.sbpo2025.challenge;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single ratio MIP (solveWithRatioModel) against the k sweep (solveWithFixedAisles)
+ * under the same time limit, both starting from the incremental super-aisle greedy.
+ * Usage: RatioBenchmark <time limit in seconds> <instance file>...
+ * Prints one CSV line per instance and mode (bound only for the ratio model).
+ */
+public class RatioBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java -cp ... org.sbpo2025.challenge.RatioBenchmark <time limit in seconds> <instance file>...");
+            return;
+        }
+        long timeLimit = Long.parseLong(args[0]);
+
+        StringBuilder csv = new StringBuilder("instance,mode,objective,bound,time_ms\n");
+        for (int i = 1; i < args.length; i++) {
+            InstanceData instance = MappedInstanceParser.parse(Path.of(args[i]));
+            String name = Path.of(args[i]).getFileName().toString();
+
+            for (String mode : new String[] { "fixed-k", "ratio" }) {
+                StopWatch stopWatch = StopWatch.createStarted();
+                ChallengeSolver solver = limitedSolver(instance, timeLimit);
+
+                PartialResult result = solver.solveSuperAisleSweep(new PartialResult(null, 0), stopWatch, new HashMap<>());
+                if (mode.equals("fixed-k")) {
+                    result = solver.solveWithFixedAisles(result, stopWatch);
+                } else {
+                    result = solver.solveWithRatioModel(result, stopWatch, solver.getRemainingTime(stopWatch));
+                }
+
+                if (result.partialSolution() != null && !solver.isSolutionFeasible(result.partialSolution())) {
+                    result = new PartialResult(null, 0);
+                }
+                // only the ratio model reports a solver bound
+                String bound = mode.equals("ratio") ? String.format("%.4f", result.bound()) : "";
+                csv.append(String.format("%s,%s,%.4f,%s,%d%n", name, mode, result.objValue(), bound, stopWatch.getTime(TimeUnit.MILLISECONDS)));
+            }
+        }
+        System.out.print("\n" + csv);
+        System.exit(0);
+    }
+
+    // solver whose remaining time counts down from the benchmark time limit instead of the challenge limit
+    private static ChallengeSolver limitedSolver(InstanceData instance, long timeLimit) {
+        return new ChallengeSolver(instance) {
+            @Override
+            protected long getRemainingTime(StopWatch stopWatch) {
+                return Math.max(timeLimit - stopWatch.getTime(TimeUnit.SECONDS), 0);
+            }
+        };
+    }
+}
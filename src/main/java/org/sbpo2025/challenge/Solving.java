@@ -1,11 +1,9 @@
 package org.sbpo2025.challenge;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import com.google.ortools.Loader;
@@ -20,24 +18,44 @@ import com.google.ortools.sat.CpSolver;
 import com.google.ortools.sat.LinearExpr;
 import com.google.ortools.sat.LinearExprBuilder;
 import com.google.ortools.sat.BoolVar;
+import com.google.ortools.sat.IntVar;
 import com.google.ortools.sat.CpSolverStatus;
 
 
 public class Solving {
     
-    protected List<Map<Integer, Integer>> orders;
-    protected List<Map<Integer, Integer>> aisles;
+    protected InstanceData instance;
+    protected InstanceStatistics statistics;
+    protected AisleRanking aisleRanking;
+    protected int nOrders;
+    protected int nAisles;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
     protected boolean enableOutput = false; // Enable or disable solver output
+    // solve the exact subproblems with CP-SAT instead of SCIP (java -Dsbpo.cpsat=true)
+    protected boolean useCpSat = Boolean.getBoolean("sbpo.cpsat");
+    // CP-SAT parallel search workers (java -Dsbpo.cpsat.workers=N)
+    protected int cpSatWorkers = Integer.getInteger("sbpo.cpsat.workers", Runtime.getRuntime().availableProcessors());
+    private FixedAislesModel fixedAislesModel; // problem 1.a, built on first use
+    private DinkelbachModel dinkelbachModel; // parametric ratio model, built on first use
+    protected boolean aggregateOrders = true; // whole-instance models use one integer variable per class of identical orders
+    protected double minimumAggregation = 0.2; // fraction of the order variables the classes must remove to be used
+    private OrderClasses orderClasses; // built on first use
+    private boolean orderClassesBuilt = false;
 
     public Solving(ChallengeSolver challengeSolver) {
-        this.orders = challengeSolver.orders;
-        this.aisles = challengeSolver.aisles;
+        this.instance = challengeSolver.instance;
+        this.statistics = challengeSolver.statistics;
+        this.aisleRanking = challengeSolver.aisleRanking;
+        this.nOrders = challengeSolver.nOrders;
+        this.nAisles = challengeSolver.nAisles;
         this.nItems = challengeSolver.nItems;
         this.waveSizeLB = challengeSolver.waveSizeLB;
         this.waveSizeUB = challengeSolver.waveSizeUB;
+        if (useCpSat) {
+            System.out.println("Exact subproblems with CP-SAT, " + cpSatWorkers + " workers");
+        }
     }
 
     /**
@@ -45,6 +63,15 @@ public class Solving {
      * @return the solution to the problem (optimal for the given k aisles)
      */
     public PartialResult problem1a(int k, long remainingTime) {
+        return problem1a(k, remainingTime, null);
+    }
+    /**
+     * @param incumbent best known solution, used as a hint after translating it to k aisles (may be null)
+     */
+    public PartialResult problem1a(int k, long remainingTime, ChallengeSolution incumbent) {
+        if (useCpSat) {
+            return problem1aCP(k, remainingTime, incumbent);
+        }
         // Solver
         Loader.loadNativeLibraries();
         MPSolver solver = MPSolver.createSolver("SCIP");
@@ -54,60 +81,220 @@ public class Solving {
             // return null;
         }
 
+        long buildStart = System.nanoTime();
+
         // Variables
-        int nOrders = orders.size();
-        List<MPVariable> selected_orders = getVariablesOrders(solver, nOrders);
-        int nAisles = aisles.size();
+        OrderClasses classes = orderClasses();
+        List<MPVariable> selected_orders = getVariablesOrders(solver, classes);
         List<MPVariable> selected_aisles = getVariablesAisles(solver, nAisles);
 
         // Unique sub problem constraint
         MPConstraint have_k_aisles = solver.makeConstraint(k, k, "Allow K aisles");
-        for (MPVariable x : selected_orders) {
-            have_k_aisles.setCoefficient(x, 0);
-        }
         for (MPVariable y : selected_aisles) {
             have_k_aisles.setCoefficient(y, 1);
         }
 
         // General problem constraints
-        makeWaveBoundsConstraint(solver, nOrders, selected_orders, selected_aisles, waveSizeLB, waveSizeUB);
-        makeAvailableCapacityConstraint(solver, selected_orders, selected_aisles);
+        makeWaveBoundsConstraint(solver, classes, selected_orders, waveSizeLB, waveSizeUB);
+        makeAvailableCapacityConstraint(solver, classes, selected_orders, selected_aisles);
 
         // Objective
         MPObjective objective = solver.objective();
-        for (int o = 0; o < nOrders; o++) {
-            Map<Integer, Integer> order = orders.get(o);
-            int coeff = 0;
-            Collection<Integer> quantities = order.values();
-            for (Integer quantity: quantities) {
-                coeff += quantity;
-            }
+        int[] units = orderUnits(classes);
+        for (int o = 0; o < selected_orders.size(); o++) {
+            int coeff = units[o];
             MPVariable x = selected_orders.get(o);
             // objective.setCoefficient(x, (double) coeff / k);
             objective.setCoefficient(x, coeff);
         }
+        objective.setMaximization();
+
+        printBuildTime("problem1a", buildStart);
+        setHint(solver, classes, selected_orders, selected_aisles, hintForAisleCount(incumbent, k));
+        solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
+        if (enableOutput) {
+            solver.enableOutput();
+        }
+        PartialResult partialResult = calculatePartialResult(solver, objective, classes, selected_orders, selected_aisles);
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / k, partialResult.bound() / k); // Normalize the objective value by k
+    }
+
+    /**
+     * Problem 1.a on a model built once per instance, only the number of aisles k changes between calls
+     * @return the solution to the problem (optimal for the given k aisles)
+     */
+    public PartialResult problem1aPersistent(int k, long remainingTime) {
+        return problem1aPersistent(k, remainingTime, null);
+    }
+    public PartialResult problem1aPersistent(int k, long remainingTime, ChallengeSolution incumbent) {
+        if (useCpSat) {
+            return problem1aCP(k, remainingTime, incumbent);
+        }
+        if (fixedAislesModel == null) {
+            fixedAislesModel = FixedAislesModel.create(this);
+            if (fixedAislesModel == null) {
+                return new PartialResult(null, 0);
+            }
+        }
+        return fixedAislesModel.solve(k, remainingTime, incumbent);
+    }
+
+    /**
+     * Parametric problem for the ratio: max units - lambda * aisles, on a model built once per instance
+     * @return the solution with the parametric value F(lambda) and its bound (not normalized)
+     */
+    public PartialResult problemDinkelbach(double lambda, long remainingTime, ChallengeSolution hint) {
+        if (dinkelbachModel == null) {
+            dinkelbachModel = DinkelbachModel.create(this);
+            if (dinkelbachModel == null) {
+                return new PartialResult(null, 0);
+            }
+        }
+        return dinkelbachModel.solve(lambda, remainingTime, hint);
+    }
+
+    /**
+     * Ratio problem in a single MIP: the number of aisles is selected by binaries z_k (k in [kMin, kMax],
+     * sum z_k = 1, sum y = sum k z_k) and w_k takes the picked units only for the selected k, so the
+     * objective sum w_k / k is units / aisles
+     * @return the solution to the problem (optimal among solutions with kMin..kMax aisles), objective is the ratio
+     */
+    public PartialResult problemRatio(int kMin, int kMax, long remainingTime, ChallengeSolution incumbent) {
+        // Solver
+        Loader.loadNativeLibraries();
+        MPSolver solver = MPSolver.createSolver("SCIP");
+        if (solver == null) {
+            System.out.println("Could not create solver SCIP");
+            return new PartialResult(null, 0);
+        }
+        kMin = Math.max(1, kMin);
+        kMax = Math.min(nAisles, kMax);
+        if (kMin > kMax) {
+            return new PartialResult(null, 0);
+        }
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        OrderClasses classes = orderClasses();
+        List<MPVariable> selected_orders = getVariablesOrders(solver, classes);
+        List<MPVariable> selected_aisles = getVariablesAisles(solver, nAisles);
+
+        // General problem constraints
+        makeWaveBoundsConstraint(solver, classes, selected_orders, waveSizeLB, waveSizeUB);
+        makeAvailableCapacityConstraint(solver, classes, selected_orders, selected_aisles);
+
+        // Number of aisles: exactly one z_k, sum y = sum k z_k
+        MPConstraint one_k = solver.makeConstraint(1, 1, "Select one aisles number");
+        MPConstraint count_aisles = solver.makeConstraint(0, 0, "Aisles number");
         for (MPVariable y : selected_aisles) {
-            objective.setCoefficient(y, 0);
+            count_aisles.setCoefficient(y, 1);
+        }
+
+        // Picked units, defined once and shared by every w_k
+        MPVariable units = solver.makeNumVar(0, waveSizeUB, "units");
+        MPConstraint define_units = solver.makeConstraint(0, 0, "Picked units");
+        define_units.setCoefficient(units, 1);
+        int[] orderUnits = orderUnits(classes);
+        for (int o = 0; o < selected_orders.size(); o++) {
+            define_units.setCoefficient(selected_orders.get(o), -orderUnits[o]);
+        }
+
+        // Objective: w_k <= UB z_k, w_k <= units
+        MPObjective objective = solver.objective();
+        for (int k = kMin; k <= kMax; k++) {
+            MPVariable z = solver.makeBoolVar("aisles_" + k);
+            MPVariable w = solver.makeNumVar(0, waveSizeUB, "units_" + k);
+            one_k.setCoefficient(z, 1);
+            count_aisles.setCoefficient(z, -k);
+
+            MPConstraint only_selected_k = solver.makeConstraint(Double.NEGATIVE_INFINITY, 0, "Units only for selected k " + k);
+            only_selected_k.setCoefficient(w, 1);
+            only_selected_k.setCoefficient(z, -waveSizeUB);
+
+            MPConstraint picked_units = solver.makeConstraint(Double.NEGATIVE_INFINITY, 0, "Picked units for k " + k);
+            picked_units.setCoefficient(w, 1);
+            picked_units.setCoefficient(units, -1);
+
+            objective.setCoefficient(w, 1.0 / k);
         }
         objective.setMaximization();
 
+        setHint(solver, classes, selected_orders, selected_aisles, incumbent);
+        printBuildTime("problemRatio", buildStart);
         solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
         if (enableOutput) {
             solver.enableOutput();
         }
-        PartialResult partialResult = calculatePartialResult(solver, objective, selected_orders, selected_aisles);
-        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / k); // Normalize the objective value by k
+
+        return calculatePartialResult(solver, objective, classes, selected_orders, selected_aisles);
+    }
+
+    /**
+     * LP relaxation of problem 1.a (GLOP)
+     * @return upper bound on the objective with k aisles, 0 if the relaxation is infeasible,
+     *         infinity if it could not be solved in time
+     */
+    public double problem1aLPBound(int k, long remainingTime) {
+        Loader.loadNativeLibraries();
+        MPSolver solver = MPSolver.createSolver("GLOP");
+        if (solver == null) {
+            System.out.println("Could not create solver GLOP");
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Variables, relaxed to [0, 1] (or to [0, multiplicity] for classes of orders)
+        OrderClasses classes = orderClasses();
+        int[] units = orderUnits(classes);
+        List<MPVariable> selected_orders = new ArrayList<>(units.length);
+        for (int o = 0; o < units.length; o++) {
+            selected_orders.add(solver.makeNumVar(0, classes == null ? 1 : classes.multiplicity[o], "order_" + o));
+        }
+        List<MPVariable> selected_aisles = new ArrayList<>(nAisles);
+        for (int a = 0; a < nAisles; a++) {
+            selected_aisles.add(solver.makeNumVar(0, 1, "aisle_" + a));
+        }
+
+        MPConstraint have_k_aisles = solver.makeConstraint(k, k, "Allow K aisles");
+        for (MPVariable y : selected_aisles) {
+            have_k_aisles.setCoefficient(y, 1);
+        }
+        makeWaveBoundsConstraint(solver, classes, selected_orders, waveSizeLB, waveSizeUB);
+        makeAvailableCapacityConstraint(solver, classes, selected_orders, selected_aisles);
+
+        MPObjective objective = solver.objective();
+        for (int o = 0; o < units.length; o++) {
+            objective.setCoefficient(selected_orders.get(o), units[o]);
+        }
+        objective.setMaximization();
+
+        solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
+        MPSolver.ResultStatus status = solver.solve();
+        double bound;
+        if (status == MPSolver.ResultStatus.OPTIMAL) {
+            bound = objective.value() / k;
+        } else if (status == MPSolver.ResultStatus.INFEASIBLE) {
+            bound = 0;
+        } else {
+            bound = Double.POSITIVE_INFINITY;
+        }
+        solver.delete();
+        return bound;
     }
 
     public PartialResult problem1aCP(int k, long remainingTime) {
+        return problem1aCP(k, remainingTime, null);
+    }
+    public PartialResult problem1aCP(int k, long remainingTime, ChallengeSolution incumbent) {
         // Solver
         Loader.loadNativeLibraries();
         CpModel model = new CpModel();
 
+        long buildStart = System.nanoTime();
+
         // Variables
-        int nOrders = orders.size();
-        List<BoolVar> selected_orders = getVariablesOrders(model, nOrders);
-        int nAisles = aisles.size();
+        OrderClasses classes = orderClasses();
+        List<IntVar> selected_orders = getVariablesOrders(model, classes);
         List<BoolVar> selected_aisles = getVariablesAisles(model, nAisles);
 
         // Unique sub problem constraint
@@ -115,29 +302,26 @@ public class Solving {
         model.addEquality(aisleSum, k); // Ensure exactly k aisles are selected
 
         // General problem constraints
-        makeWaveBoundsConstraint(model, nOrders, selected_orders, selected_aisles, waveSizeLB, waveSizeUB);
-        makeAvailableCapacityConstraint(model, selected_orders, selected_aisles);
+        makeWaveBoundsConstraint(model, classes, selected_orders, waveSizeLB, waveSizeUB);
+        makeAvailableCapacityConstraint(model, classes, selected_orders, selected_aisles);
 
         // Objective
         LinearExprBuilder objectiveBuilder = LinearExpr.newBuilder();
-        for (int o = 0; o < nOrders; o++) {
-            Map<Integer, Integer> order = orders.get(o);
-            int coeff = 0;
-            for (Integer quantity : order.values()) {
-                coeff += quantity;
-            }
-            BoolVar x = selected_orders.get(o);
+        int[] units = orderUnits(classes);
+        for (int o = 0; o < selected_orders.size(); o++) {
+            int coeff = units[o];
+            IntVar x = selected_orders.get(o);
             objectiveBuilder.addTerm(x, coeff);
         }
 
         model.maximize(objectiveBuilder);
 
-        CpSolver solver = new CpSolver();
-        solver.getParameters().setMaxTimeInSeconds(remainingTime);      // Time limit in seconds
-        solver.getParameters().setLogSearchProgress(enableOutput);      // Enable logging
+        printBuildTime("problem1aCP", buildStart);
+        addHint(model, classes, selected_orders, selected_aisles, hintForAisleCount(incumbent, k));
+        CpSolver solver = newCpSolver(remainingTime);
         
-        PartialResult partialResult = calculatePartialResult(solver, model, selected_orders, selected_aisles);
-        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / k); // Normalize the objective value by k
+        PartialResult partialResult = calculatePartialResult(solver, model, classes, selected_orders, selected_aisles);
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / k, partialResult.bound() / k); // Normalize the objective value by k
     }
 
     /**
@@ -145,6 +329,9 @@ public class Solving {
      * @return the solution to the problem (optimal for the given k units)
      */
     protected PartialResult problem1b(int k, long remainingTime) {
+        if (useCpSat) {
+            return problem1bCP(k, remainingTime);
+        }
         // Solver
         Loader.loadNativeLibraries();
         MPSolver solver = MPSolver.createSolver("SCIP");
@@ -154,10 +341,10 @@ public class Solving {
             // return null;
         }
 
+        long buildStart = System.nanoTime();
+
         // Variables
-        int nOrders = orders.size();
         List<MPVariable> selected_orders = getVariablesOrders(solver, nOrders);
-        int nAisles = aisles.size();
         List<MPVariable> selected_aisles = getVariablesAisles(solver, nAisles);
 
         // Unique sub problem constraint
@@ -168,15 +355,13 @@ public class Solving {
 
         // Objective
         MPObjective objective = solver.objective();
-        for (MPVariable x : selected_orders) {
-            objective.setCoefficient(x, 0);
-        }
         for (MPVariable y : selected_aisles) {
             objective.setCoefficient(y, 1);
         }
         
         objective.setMinimization();
 
+        printBuildTime("problem1b", buildStart);
         solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
         if (enableOutput) {
             solver.enableOutput();
@@ -184,7 +369,35 @@ public class Solving {
 
         PartialResult partialResult = calculatePartialResult(solver, objective, selected_orders, selected_aisles);
         System.out.println("Minimum aisles number for feasibility: " + partialResult.objValue());
-        return new PartialResult(partialResult.partialSolution(), k / partialResult.objValue()); // Normalize the objective value by k
+        return new PartialResult(partialResult.partialSolution(), k / partialResult.objValue(), k / partialResult.bound()); // Normalize the objective value by k
+    }
+
+    protected PartialResult problem1bCP(int k, long remainingTime) {
+        // Solver
+        Loader.loadNativeLibraries();
+        CpModel model = new CpModel();
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        List<BoolVar> selected_orders = getVariablesOrders(model, nOrders);
+        List<BoolVar> selected_aisles = getVariablesAisles(model, nAisles);
+
+        // Unique sub problem constraint
+        makeWaveBoundsConstraint(model, nOrders, selected_orders, selected_aisles, k, k);
+
+        // General problem constraints
+        makeAvailableCapacityConstraint(model, selected_orders, selected_aisles);
+
+        // Objective
+        model.minimize(LinearExpr.sum(selected_aisles.toArray(new BoolVar[0])));
+
+        printBuildTime("problem1bCP", buildStart);
+        CpSolver solver = newCpSolver(remainingTime);
+
+        PartialResult partialResult = calculatePartialResult(solver, model, selected_orders, selected_aisles);
+        System.out.println("Minimum aisles number for feasibility: " + partialResult.objValue());
+        return new PartialResult(partialResult.partialSolution(), k / partialResult.objValue(), k / partialResult.bound()); // Normalize the objective value by k
     }
 
     /**
@@ -192,6 +405,15 @@ public class Solving {
      * @return the solution to the problem (not necessarily optimal for the original problem)
      */
     protected PartialResult problem1c(long remainingTime) {
+        return problem1c(remainingTime, null);
+    }
+    /**
+     * @param incumbent feasible solution used as a hint (may be null)
+     */
+    protected PartialResult problem1c(long remainingTime, ChallengeSolution incumbent) {
+        if (useCpSat) {
+            return problem1cCP(remainingTime, incumbent);
+        }
         // Solver
         Loader.loadNativeLibraries();
         MPSolver solver = MPSolver.createSolver("SCIP");
@@ -201,40 +423,73 @@ public class Solving {
             // return null;
         }
 
+        long buildStart = System.nanoTime();
+
         // Variables
-        int nOrders = orders.size();
-        List<MPVariable> selected_orders = getVariablesOrders(solver, nOrders);
-        int nAisles = aisles.size();
+        OrderClasses classes = orderClasses();
+        List<MPVariable> selected_orders = getVariablesOrders(solver, classes);
         List<MPVariable> selected_aisles = getVariablesAisles(solver, nAisles);
 
         // Unique sub problem constraint
-        makeWaveBoundsConstraint(solver, nOrders, selected_orders, selected_aisles, waveSizeLB, waveSizeUB);
+        makeWaveBoundsConstraint(solver, classes, selected_orders, waveSizeLB, waveSizeUB);
 
         // General problem constraints
-        makeAvailableCapacityConstraint(solver, selected_orders, selected_aisles);
+        makeAvailableCapacityConstraint(solver, classes, selected_orders, selected_aisles);
 
         // Objective
         MPObjective objective = solver.objective();
-        for (MPVariable x : selected_orders) {
-            objective.setCoefficient(x, 0);
-        }
         for (MPVariable y : selected_aisles) {
             objective.setCoefficient(y, 1);
         }
         
         objective.setMinimization();
 
+        printBuildTime("problem1c", buildStart);
+        setHint(solver, classes, selected_orders, selected_aisles, incumbent);
         solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
         if (enableOutput) {
             solver.enableOutput();
         }
 
-        PartialResult partialResult = calculatePartialResult(solver, objective, selected_orders, selected_aisles);
+        PartialResult partialResult = calculatePartialResult(solver, objective, classes, selected_orders, selected_aisles);
+
+        int waveSize = waveSize(partialResult.partialSolution());
+
+        System.out.println("Minimum aisles number for feasibility: " + partialResult.objValue());
+        return new PartialResult(partialResult.partialSolution(), waveSize / partialResult.objValue(), waveSize / partialResult.bound()); // Normalize the objective value by waveSize
+    }
+
+    protected PartialResult problem1cCP(long remainingTime, ChallengeSolution incumbent) {
+        // Solver
+        Loader.loadNativeLibraries();
+        CpModel model = new CpModel();
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        OrderClasses classes = orderClasses();
+        List<IntVar> selected_orders = getVariablesOrders(model, classes);
+        List<BoolVar> selected_aisles = getVariablesAisles(model, nAisles);
+
+        // Unique sub problem constraint
+        makeWaveBoundsConstraint(model, classes, selected_orders, waveSizeLB, waveSizeUB);
+
+        // General problem constraints
+        makeAvailableCapacityConstraint(model, classes, selected_orders, selected_aisles);
+
+        // Objective
+        model.minimize(LinearExpr.sum(selected_aisles.toArray(new BoolVar[0])));
+
+        addHint(model, classes, selected_orders, selected_aisles, incumbent);
+        printBuildTime("problem1cCP", buildStart);
+        CpSolver solver = newCpSolver(remainingTime);
+
+        PartialResult partialResult = calculatePartialResult(solver, model, classes, selected_orders, selected_aisles);
 
         int waveSize = waveSize(partialResult.partialSolution());
 
         System.out.println("Minimum aisles number for feasibility: " + partialResult.objValue());
-        return new PartialResult(partialResult.partialSolution(), waveSize / partialResult.objValue()); // Normalize the objective value by waveSize
+        return new PartialResult(partialResult.partialSolution(), waveSize / partialResult.objValue(), waveSize / partialResult.bound()); // Normalize the objective value by waveSize
     }
 
     /**
@@ -242,6 +497,15 @@ public class Solving {
      * @return the solution to the problem (optimal for the given subset of aisles)
      */
     protected PartialResult problem2a(Set<Integer> selectedAisles, long remainingTime) {
+        return problem2a(selectedAisles, remainingTime, null);
+    }
+    /**
+     * @param incumbent best known solution, its orders that fit in the selected aisles are used as a hint (may be null)
+     */
+    protected PartialResult problem2a(Set<Integer> selectedAisles, long remainingTime, ChallengeSolution incumbent) {
+        if (useCpSat) {
+            return problem2aCP(selectedAisles, remainingTime, incumbent);
+        }
         // Solver
         Loader.loadNativeLibraries();
         MPSolver solver = MPSolver.createSolver("SCIP");
@@ -251,8 +515,9 @@ public class Solving {
             // return null;
         }
 
+        long buildStart = System.nanoTime();
+
         // Variables
-        int nOrders = orders.size();
         List<MPVariable> selected_orders = getVariablesOrders(solver, nOrders);
 
         // General problem constraints, but with fixed aisles
@@ -265,24 +530,52 @@ public class Solving {
         // Objective
         MPObjective objective = solver.objective();
         for (int o = 0; o < nOrders; o++) {
-            Map<Integer, Integer> order = orders.get(o);
-            int coeff = 0;
-            Collection<Integer> quantities = order.values();
-            for (Integer quantity: quantities) {
-                coeff += quantity;
-            }
+            int coeff = statistics.orderUnits[o];
             MPVariable x = selected_orders.get(o);
             
             objective.setCoefficient(x, coeff);
         }
         objective.setMaximization();
 
+        printBuildTime("problem2a", buildStart);
+        setHint(solver, selected_orders, Collections.emptyList(), hintForAisles(incumbent, selectedAisles, Collections.emptySet()));
         solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
         if (enableOutput) {
             solver.enableOutput();
         }
         PartialResult partialResult = calculatePartialResult(solver, objective, selected_orders, Collections.emptyList(), Collections.emptySet(), selectedAisles);
-        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / selectedAisles.size()); // Normalize the objective value by the number of selected aisles
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / selectedAisles.size(), partialResult.bound() / selectedAisles.size()); // Normalize the objective value by the number of selected aisles
+    }
+
+    protected PartialResult problem2aCP(Set<Integer> selectedAisles, long remainingTime, ChallengeSolution incumbent) {
+        // Solver
+        Loader.loadNativeLibraries();
+        CpModel model = new CpModel();
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        List<BoolVar> selected_orders = getVariablesOrders(model, nOrders);
+
+        // General problem constraints, but with fixed aisles
+        makeWaveBoundsConstraint(model, nOrders, selected_orders, Collections.emptyList(), waveSizeLB, waveSizeUB);
+
+        // available capacity constraint, considering fixed aisles (only order variables)
+        makeAvailableCapacityConstraint(model, selected_orders, Collections.emptyList(), Collections.emptySet(), selectedAisles);
+
+        // Objective
+        LinearExprBuilder objectiveBuilder = LinearExpr.newBuilder();
+        for (int o = 0; o < nOrders; o++) {
+            objectiveBuilder.addTerm(selected_orders.get(o), statistics.orderUnits[o]);
+        }
+        model.maximize(objectiveBuilder);
+
+        addHint(model, selected_orders, Collections.emptyList(), hintForAisles(incumbent, selectedAisles, Collections.emptySet()));
+        printBuildTime("problem2aCP", buildStart);
+        CpSolver solver = newCpSolver(remainingTime);
+
+        PartialResult partialResult = calculatePartialResult(solver, model, selected_orders, Collections.emptyList(), Collections.emptySet(), selectedAisles);
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / selectedAisles.size(), partialResult.bound() / selectedAisles.size()); // Normalize the objective value by the number of selected aisles
     }
 
     /**
@@ -290,6 +583,9 @@ public class Solving {
      * @return the solution to the problem (optimal for the given subset of orders)
      */
     protected PartialResult problem2b(Set<Integer> selectedOrders, long remainingTime) {
+        if (useCpSat) {
+            return problem2bCP(selectedOrders, remainingTime);
+        }
         // Solver
         Loader.loadNativeLibraries();
         MPSolver solver = MPSolver.createSolver("SCIP");
@@ -300,13 +596,10 @@ public class Solving {
         }
 
         // Constants
-        int nAisles = aisles.size();
 
         int waveSize = 0;
         for (Integer order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                waveSize += entry.getValue();
-            }
+            waveSize += statistics.orderUnits[order];
         }
 
         if (waveSize > waveSizeUB || waveSize < waveSizeLB) {
@@ -314,6 +607,8 @@ public class Solving {
             return new PartialResult(null, 0);
         }
 
+        long buildStart = System.nanoTime();
+
         // Variables
         List<MPVariable> selected_aisles = getVariablesAisles(solver, nAisles);
         
@@ -327,6 +622,7 @@ public class Solving {
         }
         objective.setMinimization();
 
+        printBuildTime("problem2b", buildStart);
         solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
         if (enableOutput) {
             solver.enableOutput();
@@ -334,7 +630,43 @@ public class Solving {
 
         PartialResult partialResult = calculatePartialResult(solver, objective, Collections.emptyList(), selected_aisles, selectedOrders, Collections.emptySet());
 
-        return new PartialResult(partialResult.partialSolution(), waveSize / partialResult.objValue()); // Original problem objective value
+        return new PartialResult(partialResult.partialSolution(), waveSize / partialResult.objValue(), waveSize / partialResult.bound()); // Original problem objective value
+    }
+
+    protected PartialResult problem2bCP(Set<Integer> selectedOrders, long remainingTime) {
+        // Solver
+        Loader.loadNativeLibraries();
+        CpModel model = new CpModel();
+
+        // Constants
+
+        int waveSize = 0;
+        for (Integer order : selectedOrders) {
+            waveSize += statistics.orderUnits[order];
+        }
+
+        if (waveSize > waveSizeUB || waveSize < waveSizeLB) {
+            System.out.println("Wave size out of bounds");
+            return new PartialResult(null, 0);
+        }
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        List<BoolVar> selected_aisles = getVariablesAisles(model, nAisles);
+
+        // available capacity constraint, considering fixed orders (only aisle variables)
+        makeAvailableCapacityConstraint(model, Collections.emptyList(), selected_aisles, selectedOrders, Collections.emptySet());
+
+        // Objective
+        model.minimize(LinearExpr.sum(selected_aisles.toArray(new BoolVar[0])));
+
+        printBuildTime("problem2bCP", buildStart);
+        CpSolver solver = newCpSolver(remainingTime);
+
+        PartialResult partialResult = calculatePartialResult(solver, model, Collections.emptyList(), selected_aisles, selectedOrders, Collections.emptySet());
+
+        return new PartialResult(partialResult.partialSolution(), waveSize / partialResult.objValue(), waveSize / partialResult.bound()); // Original problem objective value
     }
 
     /**
@@ -342,6 +674,12 @@ public class Solving {
      * @return the solution to the problem (optimal for the given subset of aisles and preselected orders)
      */
     protected PartialResult problem2c(Set<Integer> selectedAisles, Set<Integer> preSelectedOrders, long remainingTime) {
+        return problem2c(selectedAisles, preSelectedOrders, remainingTime, null);
+    }
+    protected PartialResult problem2c(Set<Integer> selectedAisles, Set<Integer> preSelectedOrders, long remainingTime, ChallengeSolution incumbent) {
+        if (useCpSat) {
+            return problem2cCP(selectedAisles, preSelectedOrders, remainingTime, incumbent);
+        }
         // Solver
         Loader.loadNativeLibraries();
         MPSolver solver = MPSolver.createSolver("SCIP");
@@ -351,8 +689,9 @@ public class Solving {
             // return null;
         }
 
+        long buildStart = System.nanoTime();
+
         // Variables
-        int nOrders = orders.size();
         List<MPVariable> selected_orders = getVariablesOrders(solver, nOrders);
 
         // Fix preselected orders
@@ -368,12 +707,7 @@ public class Solving {
         // Objective
         MPObjective objective = solver.objective();
         for (int o = 0; o < nOrders; o++) {
-            Map<Integer, Integer> order = orders.get(o);
-            int coeff = 0;
-            Collection<Integer> quantities = order.values();
-            for (Integer quantity: quantities) {
-                coeff += quantity;
-            }
+            int coeff = statistics.orderUnits[o];
             MPVariable x = selected_orders.get(o);
             
             objective.setCoefficient(x, coeff);
@@ -382,18 +716,79 @@ public class Solving {
         }
         objective.setMaximization();
 
+        printBuildTime("problem2c", buildStart);
+        setHint(solver, selected_orders, Collections.emptyList(), hintForAisles(incumbent, selectedAisles, preSelectedOrders));
         solver.setTimeLimit(remainingTime * 1000); // Convert seconds to milliseconds
         if (enableOutput) {
             solver.enableOutput();
         }
         PartialResult partialResult = calculatePartialResult(solver, objective, selected_orders, Collections.emptyList(), Collections.emptySet(), selectedAisles);
-        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / selectedAisles.size()); // Normalize the objective value by the number of selected aisles
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / selectedAisles.size(), partialResult.bound() / selectedAisles.size()); // Normalize the objective value by the number of selected aisles
+    }
+
+    protected PartialResult problem2cCP(Set<Integer> selectedAisles, Set<Integer> preSelectedOrders, long remainingTime, ChallengeSolution incumbent) {
+        // Solver
+        Loader.loadNativeLibraries();
+        CpModel model = new CpModel();
+
+        long buildStart = System.nanoTime();
+
+        // Variables
+        List<BoolVar> selected_orders = getVariablesOrders(model, nOrders);
+
+        // Fix preselected orders
+        makePreSelectionConstraint(model, selected_orders, preSelectedOrders);
+
+        // General problem constraints, but with fixed aisles
+        makeWaveBoundsConstraint(model, nOrders, selected_orders, Collections.emptyList(), waveSizeLB, waveSizeUB);
+
+        // available capacity constraint, considering fixed aisles (only order variables)
+        makeAvailableCapacityConstraint(model, selected_orders, Collections.emptyList(), preSelectedOrders, selectedAisles);
+
+        // Objective
+        LinearExprBuilder objectiveBuilder = LinearExpr.newBuilder();
+        for (int o = 0; o < nOrders; o++) {
+            objectiveBuilder.addTerm(selected_orders.get(o), statistics.orderUnits[o]);
+        }
+        model.maximize(objectiveBuilder);
+
+        addHint(model, selected_orders, Collections.emptyList(), hintForAisles(incumbent, selectedAisles, preSelectedOrders));
+        printBuildTime("problem2cCP", buildStart);
+        CpSolver solver = newCpSolver(remainingTime);
+
+        PartialResult partialResult = calculatePartialResult(solver, model, selected_orders, Collections.emptyList(), Collections.emptySet(), selectedAisles);
+        return new PartialResult(partialResult.partialSolution(), partialResult.objValue() / selectedAisles.size(), partialResult.bound() / selectedAisles.size()); // Normalize the objective value by the number of selected aisles
     }
 
     
     
 
 
+    /**
+     * @return the classes of identical orders, or null if the models use one variable per order
+     *         (aggregation disabled, or too few repeated orders)
+     */
+    protected OrderClasses orderClasses() {
+        if (!aggregateOrders) {
+            return null;
+        }
+        if (!orderClassesBuilt) {
+            orderClassesBuilt = true;
+            long start = System.nanoTime();
+            OrderClasses classes = new OrderClasses(instance, statistics);
+            boolean useful = classes.nClasses <= (1 - minimumAggregation) * nOrders;
+            System.out.println("Order classes: " + classes.nClasses + " for " + nOrders + " orders ("
+                + (System.nanoTime() - start) / 1_000_000 + " ms)" + (useful ? "" : ", not aggregated"));
+            orderClasses = useful ? classes : null;
+        }
+        return orderClasses;
+    }
+
+    // units of each order variable
+    protected int[] orderUnits(OrderClasses classes) {
+        return classes == null ? statistics.orderUnits : classes.units;
+    }
+
     // variables
 
     protected List<MPVariable> getVariablesOrders(MPSolver solver, int nOrders) {
@@ -411,6 +806,30 @@ public class Solving {
         return selected_orders;
     }
 
+    /*
+     * One boolean per order, or one integer per class of identical orders (number of selected orders of the class)
+     */
+    protected List<MPVariable> getVariablesOrders(MPSolver solver, OrderClasses classes) {
+        if (classes == null) {
+            return getVariablesOrders(solver, nOrders);
+        }
+        ArrayList<MPVariable> selected_classes = new ArrayList<>(classes.nClasses);
+        for (int c = 0; c < classes.nClasses; c++) {
+            selected_classes.add(solver.makeIntVar(0, classes.multiplicity[c], "order_class_" + c));
+        }
+        return selected_classes;
+    }
+    protected List<IntVar> getVariablesOrders(CpModel model, OrderClasses classes) {
+        if (classes == null) {
+            return new ArrayList<>(getVariablesOrders(model, nOrders));
+        }
+        ArrayList<IntVar> selected_classes = new ArrayList<>(classes.nClasses);
+        for (int c = 0; c < classes.nClasses; c++) {
+            selected_classes.add(model.newIntVar(0, classes.multiplicity[c], "order_class_" + c));
+        }
+        return selected_classes;
+    }
+
     protected List<MPVariable> getVariablesAisles(MPSolver solver, int nAisles) {
         ArrayList<MPVariable> selected_aisles = new ArrayList<>(nAisles);
         for (int i = 0; i < nAisles; i++) {
@@ -431,81 +850,81 @@ public class Solving {
     protected void makeWaveBoundsConstraint(MPSolver solver, int nOrders, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, int LB, int UB) {
         MPConstraint wave_bounds = solver.makeConstraint(LB, UB, "Wave size bounds");
         for (int o = 0; o < nOrders; o++) {
-            Map<Integer, Integer> order = orders.get(o);
-            int coeff = 0;
-            Collection<Integer> quantities = order.values();
-            for (Integer quantity: quantities) {
-                coeff += quantity;
-            }
+            int coeff = statistics.orderUnits[o];
             MPVariable x = selected_orders.get(o);
             wave_bounds.setCoefficient(x, coeff);
         }
-        for (MPVariable y : selected_aisles) {
-            wave_bounds.setCoefficient(y, 0);
-        }
     }
     protected void makeWaveBoundsConstraint(CpModel model, int nOrders, List<BoolVar> selected_orders, List<BoolVar> selected_aisles, int LB, int UB) {
-        LinearExpr wave_bounds = LinearExpr.sum(selected_orders.toArray(new BoolVar[0]));
-        model.addLessOrEqual(wave_bounds, UB);
-        model.addGreaterOrEqual(wave_bounds, LB);
+        LinearExprBuilder wave_bounds = LinearExpr.newBuilder();
+        for (int o = 0; o < nOrders; o++) {
+            wave_bounds.addTerm(selected_orders.get(o), statistics.orderUnits[o]);
+        }
+        model.addLinearConstraint(wave_bounds, LB, UB);
     }
 
-    protected void makeAvailableCapacityConstraint(MPSolver solver, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
-        double infinity = Double.POSITIVE_INFINITY;
-        Set<Integer> item_keys = new HashSet<>(Collections.emptySet());
-        for (Map<Integer, Integer> order : orders) {
-            item_keys.addAll(order.keySet());
+    protected void makeWaveBoundsConstraint(MPSolver solver, OrderClasses classes, List<MPVariable> selected_orders, int LB, int UB) {
+        int[] units = orderUnits(classes);
+        MPConstraint wave_bounds = solver.makeConstraint(LB, UB, "Wave size bounds");
+        for (int o = 0; o < selected_orders.size(); o++) {
+            wave_bounds.setCoefficient(selected_orders.get(o), units[o]);
+        }
+    }
+    protected void makeWaveBoundsConstraint(CpModel model, OrderClasses classes, List<IntVar> selected_orders, int LB, int UB) {
+        int[] units = orderUnits(classes);
+        LinearExprBuilder wave_bounds = LinearExpr.newBuilder();
+        for (int o = 0; o < selected_orders.size(); o++) {
+            wave_bounds.addTerm(selected_orders.get(o), units[o]);
         }
-        // for (Map<Integer, Integer> aisle : aisles) {
-        //     item_keys.addAll(aisle.keySet());
-        // }
+        model.addLinearConstraint(wave_bounds, LB, UB);
+    }
 
-        for (Integer i : item_keys) {
+    /*
+     * One row per demanded item, built from the item transpose so only the non-zero coefficients
+     * are set. Fixed orders / aisles do not get a coefficient, they move to the right-hand side.
+     */
+    protected void makeAvailableCapacityConstraint(MPSolver solver, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
+        double infinity = Double.POSITIVE_INFINITY;
+        BitSet fixedOrders = toBits(fixed_selected_orders, nOrders);
+        BitSet fixedAisles = toBits(fixed_selected_aisles, nAisles);
+        boolean orderVariables = !selected_orders.isEmpty();
+        boolean aisleVariables = !selected_aisles.isEmpty();
+
+        for (int i = 0; i < nItems; i++) {
+            if (instance.itemOrderStart[i] == instance.itemOrderStart[i + 1]) {
+                continue; // item not requested by any order
+            }
 
             // Sum up availability of item i from fixed aisles
             int supply = 0;
-            for (int a : fixed_selected_aisles) {
-                Integer coeff = aisles.get(a).get(i);
-                if (coeff != null) supply += coeff;
+            for (int p = instance.itemAisleStart[i]; p < instance.itemAisleStart[i + 1]; p++) {
+                if (fixedAisles.get(instance.itemAisles[p])) supply += instance.itemAisleQuantities[p];
             }
 
             // Sum up demand of item i from fixed orders
             int demand = 0;
-            for (int o : fixed_selected_orders) {
-                Integer coeff = orders.get(o).get(i);
-                if (coeff != null) demand += coeff;
+            for (int p = instance.itemOrderStart[i]; p < instance.itemOrderStart[i + 1]; p++) {
+                if (fixedOrders.get(instance.itemOrders[p])) demand += instance.itemOrderQuantities[p];
             }
 
             MPConstraint available_capacity = solver.makeConstraint(-infinity, supply - demand, "Make sure items in orders are available in aisles");
 
             // Coefficients for orders
-            if (!selected_orders.isEmpty()) {
-                for (int o = 0; o < selected_orders.size(); o++) {
-                    MPVariable x = selected_orders.get(o); // try get the order from the variables
-
-                    if (fixed_selected_orders.contains(o)) {
-                        available_capacity.setCoefficient(x, 0); // Fixed order, no capacity needed
-
-                    } else if (x != null) {
-                        Integer coeff = orders.get(o).get(i);
-                        if (coeff == null) coeff = 0;
-                        available_capacity.setCoefficient(x, coeff);
+            if (orderVariables) {
+                for (int p = instance.itemOrderStart[i]; p < instance.itemOrderStart[i + 1]; p++) {
+                    int o = instance.itemOrders[p];
+                    if (!fixedOrders.get(o)) {
+                        available_capacity.setCoefficient(selected_orders.get(o), instance.itemOrderQuantities[p]);
                     }
                 }
             }
 
             // Coefficients for aisles
-            if (!selected_aisles.isEmpty()) {
-                for (int a = 0; a < selected_aisles.size(); a++) {
-                    MPVariable y = selected_aisles.get(a); // try get the aisle from the variables
-
-                    if (fixed_selected_aisles.contains(a)) {
-                        available_capacity.setCoefficient(y, 0); // Fixed aisle, no capacity needed
-
-                    } else if (y != null) {
-                        Integer coeff = aisles.get(a).get(i);
-                        if (coeff == null) coeff = 0;
-                        available_capacity.setCoefficient(y, -coeff);
+            if (aisleVariables) {
+                for (int p = instance.itemAisleStart[i]; p < instance.itemAisleStart[i + 1]; p++) {
+                    int a = instance.itemAisles[p];
+                    if (!fixedAisles.get(a)) {
+                        available_capacity.setCoefficient(selected_aisles.get(a), -instance.itemAisleQuantities[p]);
                     }
                 }
             }
@@ -514,52 +933,82 @@ public class Solving {
     protected void makeAvailableCapacityConstraint(MPSolver solver, List<MPVariable> selected_orders, List<MPVariable> selected_aisles) {
         makeAvailableCapacityConstraint(solver, selected_orders, selected_aisles, Collections.emptySet(), Collections.emptySet());
     }
-    protected void makeAvailableCapacityConstraint(CpModel model, List<BoolVar> selected_orders, List<BoolVar> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
-        Set<Integer> item_keys = new HashSet<>(Collections.emptySet());
-        for (Map<Integer, Integer> order : orders) {
-            item_keys.addAll(order.keySet());
+    /*
+     * Same rows with one coefficient per class (the quantity of one order of the class)
+     */
+    protected void makeAvailableCapacityConstraint(MPSolver solver, OrderClasses classes, List<MPVariable> selected_orders, List<MPVariable> selected_aisles) {
+        if (classes == null) {
+            makeAvailableCapacityConstraint(solver, selected_orders, selected_aisles);
+            return;
         }
-
-        for (Integer i : item_keys) {
-            // Compute static supply from fixed aisles
-            int supply = 0;
-            for (int a : fixed_selected_aisles) {
-                Integer coeff = aisles.get(a).get(i);
-                if (coeff != null) supply += coeff;
+        InstanceData rows = classes.instance;
+        for (int i = 0; i < nItems; i++) {
+            if (rows.itemOrderStart[i] == rows.itemOrderStart[i + 1]) {
+                continue; // item not requested by any order
+            }
+            MPConstraint available_capacity = solver.makeConstraint(Double.NEGATIVE_INFINITY, 0, "Make sure items in orders are available in aisles");
+            for (int p = rows.itemOrderStart[i]; p < rows.itemOrderStart[i + 1]; p++) {
+                available_capacity.setCoefficient(selected_orders.get(rows.itemOrders[p]), rows.itemOrderQuantities[p]);
+            }
+            for (int p = instance.itemAisleStart[i]; p < instance.itemAisleStart[i + 1]; p++) {
+                available_capacity.setCoefficient(selected_aisles.get(instance.itemAisles[p]), -instance.itemAisleQuantities[p]);
+            }
+        }
+    }
+    protected void makeAvailableCapacityConstraint(CpModel model, List<BoolVar> selected_orders, List<BoolVar> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
+        BitSet fixedOrders = toBits(fixed_selected_orders, nOrders);
+        BitSet fixedAisles = toBits(fixed_selected_aisles, nAisles);
+        boolean orderVariables = !selected_orders.isEmpty();
+        boolean aisleVariables = !selected_aisles.isEmpty();
+
+        for (int i = 0; i < nItems; i++) {
+            if (instance.itemOrderStart[i] == instance.itemOrderStart[i + 1]) {
+                continue; // item not requested by any order
             }
 
-            // Build LinearExpr for total demand from orders
-            List<LinearExpr> demandTerms = new ArrayList<>();
-            for (int o = 0; o < orders.size(); o++) {
-                Integer coeff = orders.get(o).get(i);
-                if (coeff != null && coeff != 0) {
-                    demandTerms.add(LinearExpr.term(selected_orders.get(o), coeff));
+            // demand of variable orders minus supply of variable aisles <= fixed supply - fixed demand
+            long rhs = 0;
+            LinearExprBuilder balance = LinearExpr.newBuilder();
+            for (int p = instance.itemOrderStart[i]; p < instance.itemOrderStart[i + 1]; p++) {
+                int o = instance.itemOrders[p];
+                if (fixedOrders.get(o)) {
+                    rhs -= instance.itemOrderQuantities[p];
+                } else if (orderVariables) {
+                    balance.addTerm(selected_orders.get(o), instance.itemOrderQuantities[p]);
                 }
             }
-
-            // Build LinearExpr for variable aisle supply
-            List<LinearExpr> aisleTerms = new ArrayList<>();
-            for (int a = 0; a < aisles.size(); a++) {
-                Integer coeff = aisles.get(a).get(i);
-                if (coeff != null && coeff != 0) {
-                    aisleTerms.add(LinearExpr.term(selected_aisles.get(a), coeff));
+            for (int p = instance.itemAisleStart[i]; p < instance.itemAisleStart[i + 1]; p++) {
+                int a = instance.itemAisles[p];
+                if (fixedAisles.get(a)) {
+                    rhs += instance.itemAisleQuantities[p];
+                } else if (aisleVariables) {
+                    balance.addTerm(selected_aisles.get(a), -instance.itemAisleQuantities[p]);
                 }
             }
 
-            LinearExpr demandExpr = LinearExpr.newBuilder().addSum(demandTerms.toArray(new LinearExpr[0])).build();
-            LinearExpr aisleExpr = LinearExpr.newBuilder().addSum(aisleTerms.toArray(new LinearExpr[0])).build();
-            aisleExpr = LinearExpr.sum(
-                new LinearExpr[] { aisleExpr, LinearExpr.constant(supply) }
-            );
-
-            // Make the inequality: demand <= fixed + variable aisle supply
-            model.addLessOrEqual(demandExpr, aisleExpr);
+            model.addLessOrEqual(balance, rhs);
         }
 
     }
     protected void makeAvailableCapacityConstraint(CpModel model, List<BoolVar> selected_orders, List<BoolVar> selected_aisles) {
         makeAvailableCapacityConstraint(model, selected_orders, selected_aisles, Collections.emptySet(), Collections.emptySet());
     }
+    protected void makeAvailableCapacityConstraint(CpModel model, OrderClasses classes, List<IntVar> selected_orders, List<BoolVar> selected_aisles) {
+        InstanceData rows = classes == null ? instance : classes.instance;
+        for (int i = 0; i < nItems; i++) {
+            if (rows.itemOrderStart[i] == rows.itemOrderStart[i + 1]) {
+                continue; // item not requested by any order
+            }
+            LinearExprBuilder balance = LinearExpr.newBuilder();
+            for (int p = rows.itemOrderStart[i]; p < rows.itemOrderStart[i + 1]; p++) {
+                balance.addTerm(selected_orders.get(rows.itemOrders[p]), rows.itemOrderQuantities[p]);
+            }
+            for (int p = instance.itemAisleStart[i]; p < instance.itemAisleStart[i + 1]; p++) {
+                balance.addTerm(selected_aisles.get(instance.itemAisles[p]), -instance.itemAisleQuantities[p]);
+            }
+            model.addLessOrEqual(balance, 0);
+        }
+    }
 
     protected void makePreSelectionConstraint(MPSolver solver, List<MPVariable> selected_orders, Set<Integer> preSelectedOrders) {
 
@@ -571,49 +1020,188 @@ public class Solving {
 
     }
 
+    // hints
+
+    /*
+     * Incumbent translated to exactly k aisles: keeps its best ranked aisles (completing with the
+     * best ranked unused ones if it has fewer) and the incumbent orders that still fit in them
+     */
+    protected ChallengeSolution hintForAisleCount(ChallengeSolution incumbent, int k) {
+        if (incumbent == null) {
+            return null;
+        }
+        BitSet aisles = new BitSet(nAisles);
+        int count = 0;
+        for (int r = 0; r < aisleRanking.size() && count < k; r++) {
+            if (incumbent.hasAisle(aisleRanking.aisle(r))) {
+                aisles.set(aisleRanking.aisle(r));
+                count++;
+            }
+        }
+        for (int r = 0; r < aisleRanking.size() && count < k; r++) {
+            if (!aisles.get(aisleRanking.aisle(r))) {
+                aisles.set(aisleRanking.aisle(r));
+                count++;
+            }
+        }
+        return hintForAisles(incumbent, aisles, Collections.emptySet());
+    }
+    protected ChallengeSolution hintForAisles(ChallengeSolution incumbent, Set<Integer> aisles, Set<Integer> fixedOrders) {
+        if (incumbent == null) {
+            return null;
+        }
+        return hintForAisles(incumbent, toBits(aisles, nAisles), fixedOrders);
+    }
+    /*
+     * Fixed orders plus the incumbent orders that fit in the given aisles
+     */
+    protected ChallengeSolution hintForAisles(ChallengeSolution incumbent, BitSet aisles, Set<Integer> fixedOrders) {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(instance, statistics);
+        for (int a = aisles.nextSetBit(0); a >= 0; a = aisles.nextSetBit(a + 1)) {
+            evaluator.addAisle(a);
+        }
+        for (int o : fixedOrders) {
+            evaluator.addOrder(o);
+        }
+        for (int o = incumbent.nextOrder(0); o >= 0; o = incumbent.nextOrder(o + 1)) {
+            if (evaluator.orderFits(o)) {
+                evaluator.addOrder(o);
+            }
+        }
+        return evaluator.snapshot();
+    }
+
+    protected void setHint(MPSolver solver, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, ChallengeSolution hint) {
+        if (hint == null) {
+            return;
+        }
+        MPVariable[] variables = new MPVariable[selected_orders.size() + selected_aisles.size()];
+        double[] values = new double[variables.length];
+        for (int o = 0; o < selected_orders.size(); o++) {
+            variables[o] = selected_orders.get(o);
+            values[o] = hint.hasOrder(o) ? 1 : 0;
+        }
+        for (int a = 0; a < selected_aisles.size(); a++) {
+            variables[selected_orders.size() + a] = selected_aisles.get(a);
+            values[selected_orders.size() + a] = hint.hasAisle(a) ? 1 : 0;
+        }
+        solver.setHint(variables, values);
+    }
+    protected void setHint(MPSolver solver, OrderClasses classes, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, ChallengeSolution hint) {
+        if (classes == null || hint == null) {
+            setHint(solver, selected_orders, selected_aisles, hint);
+            return;
+        }
+        int[] counts = classes.counts(hint);
+        MPVariable[] variables = new MPVariable[selected_orders.size() + selected_aisles.size()];
+        double[] values = new double[variables.length];
+        for (int c = 0; c < selected_orders.size(); c++) {
+            variables[c] = selected_orders.get(c);
+            values[c] = counts[c];
+        }
+        for (int a = 0; a < selected_aisles.size(); a++) {
+            variables[selected_orders.size() + a] = selected_aisles.get(a);
+            values[selected_orders.size() + a] = hint.hasAisle(a) ? 1 : 0;
+        }
+        solver.setHint(variables, values);
+    }
+    protected void addHint(CpModel model, OrderClasses classes, List<IntVar> selected_orders, List<BoolVar> selected_aisles, ChallengeSolution hint) {
+        if (hint == null) {
+            return;
+        }
+        int[] counts = classes == null ? null : classes.counts(hint);
+        for (int o = 0; o < selected_orders.size(); o++) {
+            model.addHint(selected_orders.get(o), counts == null ? (hint.hasOrder(o) ? 1 : 0) : counts[o]);
+        }
+        for (int a = 0; a < selected_aisles.size(); a++) {
+            model.addHint(selected_aisles.get(a), hint.hasAisle(a) ? 1 : 0);
+        }
+    }
+    protected void addHint(CpModel model, List<BoolVar> selected_orders, List<BoolVar> selected_aisles, ChallengeSolution hint) {
+        if (hint == null) {
+            return;
+        }
+        for (int o = 0; o < selected_orders.size(); o++) {
+            model.addHint(selected_orders.get(o), hint.hasOrder(o) ? 1 : 0);
+        }
+        for (int a = 0; a < selected_aisles.size(); a++) {
+            model.addHint(selected_aisles.get(a), hint.hasAisle(a) ? 1 : 0);
+        }
+    }
+
+    protected void makePreSelectionConstraint(CpModel model, List<BoolVar> selected_orders, Set<Integer> preSelectedOrders) {
+        for (int o : preSelectedOrders) {
+            model.addEquality(selected_orders.get(o), 1);
+        }
+    }
+
     // solve
+
+    // CP-SAT solver with the same time limit as the SCIP paths, using all configured workers
+    protected CpSolver newCpSolver(long remainingTime) {
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(remainingTime);      // Time limit in seconds
+        solver.getParameters().setNumWorkers(cpSatWorkers);             // Parallel search workers
+        solver.getParameters().setLogSearchProgress(enableOutput);      // Enable logging
+        return solver;
+    }
+
     protected PartialResult calculatePartialResult(MPSolver solver, MPObjective objective, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
+        return calculatePartialResult(solver, objective, null, selected_orders, selected_aisles, fixed_selected_orders, fixed_selected_aisles);
+    }
+    /*
+     * classes: the order variables are classes of identical orders (may be null), a class with
+     * value n selects its first n orders
+     */
+    private PartialResult calculatePartialResult(MPSolver solver, MPObjective objective, OrderClasses classes, List<MPVariable> selected_orders, List<MPVariable> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
         
         final MPSolver.ResultStatus resultStatus = solver.solve();
 
-        Set<Integer> finalOrders = new HashSet<>();
-        Set<Integer> finalAisles = new HashSet<>();
+        BitSet finalOrders = new BitSet(nOrders);
+        BitSet finalAisles = new BitSet(nAisles);
 
-        if (resultStatus == MPSolver.ResultStatus.OPTIMAL) {
-            // revisar condicion .OPTIMAL
+        boolean optimal = resultStatus == MPSolver.ResultStatus.OPTIMAL;
+        if (optimal || resultStatus == MPSolver.ResultStatus.FEASIBLE) {
+            // FEASIBLE: time limit reached, keep the incumbent and the solver bound
 
             // pick orders
             for (Integer a : fixed_selected_orders) {
-                finalOrders.add(a);
+                finalOrders.set(a);
             }
             for (int i = 0; i < selected_orders.size(); i++) {
                 MPVariable x = selected_orders.get(i);
-                if (x.solutionValue() == 1) {
+                if (classes != null) {
+                    classes.select(i, (int) Math.round(x.solutionValue()), finalOrders);
+                } else if (x.solutionValue() > 0.5) {
                     // System.out.println("x_" + i + ": " + x.solutionValue());
-                    finalOrders.add(i);
+                    finalOrders.set(i);
                 }
             }
 
             // pick aisles
             for (Integer a : fixed_selected_aisles) {
-                finalAisles.add(a);
+                finalAisles.set(a);
             }
             for (int i = 0; i < selected_aisles.size(); i++) {
                 MPVariable y = selected_aisles.get(i);
                 if (
-                    y.solutionValue() == 1
+                    y.solutionValue() > 0.5
                     // (y == null && fixed_selected_aisles.contains(i))
                     // || (y != null && y.solutionValue() == 1)
                     ) {
                     // System.out.println("y_" + i + ": " + y.solutionValue());
-                    finalAisles.add(i);
+                    finalAisles.set(i);
                 }
             }
             
 
-            ChallengeSolution partialSolution = new ChallengeSolution(finalOrders, finalAisles);
+            ChallengeSolution partialSolution = ChallengeSolution.of(finalOrders, finalAisles);
+            double bound = optimal ? objective.value() : objective.bestBound();
+            if (!optimal) {
+                System.out.println(String.format("Time limit reached, feasible solution %.2f with bound %.2f", objective.value(), bound));
+            }
             
-            return new PartialResult(partialSolution, objective.value());
+            return new PartialResult(partialSolution, objective.value(), bound);
         } else {
             return new PartialResult(null, 0);
         }
@@ -622,33 +1210,49 @@ public class Solving {
         return calculatePartialResult(solver, objective, selected_orders, selected_aisles, Collections.emptySet(), Collections.emptySet());
         // default value for fixed_selected_aisles is empty set
     }
+    protected PartialResult calculatePartialResult(MPSolver solver, MPObjective objective, OrderClasses classes, List<MPVariable> selected_orders, List<MPVariable> selected_aisles) {
+        return calculatePartialResult(solver, objective, classes, selected_orders, selected_aisles, Collections.emptySet(), Collections.emptySet());
+    }
     protected PartialResult calculatePartialResult(CpSolver solver, CpModel model, List<BoolVar> selected_orders, List<BoolVar> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
+        return calculatePartialResult(solver, model, null, selected_orders, selected_aisles, fixed_selected_orders, fixed_selected_aisles);
+    }
+    private PartialResult calculatePartialResult(CpSolver solver, CpModel model, OrderClasses classes, List<? extends IntVar> selected_orders, List<BoolVar> selected_aisles, Set<Integer> fixed_selected_orders, Set<Integer> fixed_selected_aisles) {
         CpSolverStatus status = solver.solve(model);
 
-        Set<Integer> finalOrders = new HashSet<>();
-        Set<Integer> finalAisles = new HashSet<>();
-        if (status == CpSolverStatus.OPTIMAL) {
-            // revisar condicion .OPTIMAL
+        BitSet finalOrders = new BitSet(nOrders);
+        BitSet finalAisles = new BitSet(nAisles);
+        boolean optimal = status == CpSolverStatus.OPTIMAL;
+        if (optimal || status == CpSolverStatus.FEASIBLE) {
+            // FEASIBLE: time limit reached, keep the incumbent and the solver bound
 
+            for (Integer a : fixed_selected_orders) {
+                finalOrders.set(a);
+            }
             for (int i = 0; i < selected_orders.size(); i++) {
-                BoolVar x = selected_orders.get(i);
-                if (solver.value(x) == 1) {
-                    finalOrders.add(i);
+                IntVar x = selected_orders.get(i);
+                if (classes != null) {
+                    classes.select(i, (int) solver.value(x), finalOrders);
+                } else if (solver.value(x) == 1) {
+                    finalOrders.set(i);
                 }
             }
             for (Integer a : fixed_selected_aisles) {
-                finalAisles.add(a);
+                finalAisles.set(a);
             }
             for (int i = 0; i < selected_aisles.size(); i++) {
                 BoolVar y = selected_aisles.get(i);
                 if (solver.value(y) == 1) {
-                    finalAisles.add(i);
+                    finalAisles.set(i);
                 }
             }
 
-            ChallengeSolution partialSolution = new ChallengeSolution(finalOrders, finalAisles);
+            ChallengeSolution partialSolution = ChallengeSolution.of(finalOrders, finalAisles);
+            double bound = optimal ? solver.objectiveValue() : solver.bestObjectiveBound();
+            if (!optimal) {
+                System.out.println(String.format("Time limit reached, feasible solution %.2f with bound %.2f", solver.objectiveValue(), bound));
+            }
             
-            return new PartialResult(partialSolution, solver.objectiveValue());
+            return new PartialResult(partialSolution, solver.objectiveValue(), bound);
         } else {
             return new PartialResult(null, 0);
         }
@@ -657,6 +1261,21 @@ public class Solving {
         return calculatePartialResult(solver, model, selected_orders, selected_aisles, Collections.emptySet(), Collections.emptySet());
         // default value for fixed_selected_aisles is empty set
     }
+    protected PartialResult calculatePartialResult(CpSolver solver, CpModel model, OrderClasses classes, List<IntVar> selected_orders, List<BoolVar> selected_aisles) {
+        return calculatePartialResult(solver, model, classes, selected_orders, selected_aisles, Collections.emptySet(), Collections.emptySet());
+    }
+
+    private static BitSet toBits(Set<Integer> set, int size) {
+        BitSet bits = new BitSet(size);
+        for (int id : set) {
+            bits.set(id);
+        }
+        return bits;
+    }
+
+    private static void printBuildTime(String problem, long startNanos) {
+        System.out.println(problem + " model built in " + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+    }
 
     // Calculate total units picked
     public int waveSize(ChallengeSolution partialSolution) {
@@ -667,9 +1286,7 @@ public class Solving {
         }
 
         for (int order : partialSolution.orders()) { // each order
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                unitsPicked += entry.getValue(); // each item
-            }
+            unitsPicked += statistics.orderUnits[order];
         }
 
         return unitsPicked;
@@ -0,0 +1,216 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tabu search over the set of k visited aisles with a swap neighbourhood (one aisle out, one in).
+ * Every swap is scored from the current per-item slack of the IncrementalEvaluator in
+ * O(items of both aisles), without running the greedy: the estimated change of units is the change
+ * of usable slack (capped by the demand not yet picked) minus the deficit the swap creates.
+ * The neighbourhood is split over worker threads, each with its own scratch arrays; only the best
+ * move is applied for real (drop orders in deficit, then fill with orders that fit).
+ * Tabu attributes are per aisle (tabuUntil[aisle], O(1) check): an aisle that left may not come
+ * back, and an aisle that entered may not leave, for tenure iterations, unless the estimated
+ * units beat the best solution (aspiration). If every move is tabu, the best one is taken anyway.
+ */
+public class TabuSearch {
+    private final InstanceData instance;
+    private final int threads;
+
+    private final IncrementalEvaluator evaluator;
+    private final int[] tabuUntil;        // iteration until which the aisle may not change side
+    private int iterations;
+
+    private int[] inAisles;
+    private int[] outAisles;
+
+    public TabuSearch(ChallengeSolver solver, int threads) {
+        this.instance = solver.instance;
+        this.threads = Math.max(1, threads);
+        this.evaluator = new IncrementalEvaluator(instance, solver.statistics);
+        this.tabuUntil = new int[instance.nAisles];
+    }
+
+    /**
+     * @param deadline System.nanoTime() at which the search stops
+     * @return the best solution found (initial if nothing better), same number of aisles as the initial one
+     */
+    public PartialResult run(PartialResult initial, long deadline, int tenure, int maxIterations) {
+        if (initial.partialSolution() == null) {
+            return initial;
+        }
+        evaluator.load(initial.partialSolution());
+        int k = evaluator.aislesCount();
+        if (k == 0 || k == instance.nAisles) {
+            return initial;
+        }
+        PartialResult best = initial;
+        int bestUnits = evaluator.totalUnits();
+
+        inAisles = new int[k];
+        outAisles = new int[instance.nAisles - k];
+        Scratch[] scratch = new Scratch[threads];
+        for (int t = 0; t < threads; t++) {
+            scratch[t] = new Scratch(instance.nItems);
+        }
+
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            for (iterations = 0; iterations < maxIterations && System.nanoTime() < deadline; iterations++) {
+                splitAisles();
+
+                // best swap over the neighbourhood, one chunk of out-aisles per worker
+                Move move = null;
+                if (pool == null) {
+                    move = bestMove(scratch[0], 0, bestUnits);
+                } else {
+                    List<Callable<Move>> tasks = new ArrayList<>(threads);
+                    for (int t = 0; t < threads; t++) {
+                        Scratch s = scratch[t];
+                        int chunk = t;
+                        int target = bestUnits;
+                        tasks.add(() -> bestMove(s, chunk, target));
+                    }
+                    for (Future<Move> future : pool.invokeAll(tasks)) {
+                        Move m = future.get();
+                        if (m != null && (move == null || m.better(move))) {
+                            move = m;
+                        }
+                    }
+                }
+                if (move == null) {
+                    break;
+                }
+
+                apply(move.out, move.in);
+                tabuUntil[move.out] = iterations + tenure;
+                tabuUntil[move.in] = iterations + tenure;
+
+                if (evaluator.isFeasible() && evaluator.totalUnits() > bestUnits) {
+                    bestUnits = evaluator.totalUnits();
+                    best = evaluator.toPartialResult();
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("Tabu search failed: " + e.getMessage());
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        return best;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    // admissible moves first, then by estimated delta
+    private record Move(int out, int in, long delta, boolean tabu) {
+        boolean better(Move other) {
+            return tabu != other.tabu ? !tabu : delta > other.delta;
+        }
+    }
+
+    // thread-confined: quantity of the incoming aisle per item, and a stamp to skip shared items
+    private static final class Scratch {
+        final int[] incoming;
+        final int[] stamp;
+        int stampValue;
+
+        Scratch(int nItems) {
+            this.incoming = new int[nItems];
+            this.stamp = new int[nItems];
+        }
+    }
+
+    private Move bestMove(Scratch scratch, int chunk, int bestUnits) {
+        Move best = null;
+        int units = evaluator.totalUnits();
+        for (int j = chunk; j < outAisles.length; j += threads) {
+            int in = outAisles[j];
+            for (int p = instance.aisleStart[in]; p < instance.aisleStart[in + 1]; p++) {
+                scratch.incoming[instance.aisleItems[p]] = instance.aisleQuantities[p];
+            }
+
+            for (int out : inAisles) {
+                long delta = 0;
+                int stampValue = ++scratch.stampValue;
+                for (int p = instance.aisleStart[out]; p < instance.aisleStart[out + 1]; p++) {
+                    int item = instance.aisleItems[p];
+                    scratch.stamp[item] = stampValue;
+                    int slack = evaluator.slack(item);
+                    delta += gain(item, slack, slack - instance.aisleQuantities[p] + scratch.incoming[item]);
+                }
+                for (int p = instance.aisleStart[in]; p < instance.aisleStart[in + 1]; p++) {
+                    int item = instance.aisleItems[p];
+                    if (scratch.stamp[item] != stampValue) {
+                        int slack = evaluator.slack(item);
+                        delta += gain(item, slack, slack + instance.aisleQuantities[p]);
+                    }
+                }
+
+                // tabu unless it beats the best solution (aspiration); kept as fallback when every move is tabu
+                boolean tabu = (tabuUntil[out] > iterations || tabuUntil[in] > iterations) && units + delta <= bestUnits;
+                Move candidate = new Move(out, in, delta, tabu);
+                if (best == null || candidate.better(best)) {
+                    best = candidate;
+                }
+            }
+
+            for (int p = instance.aisleStart[in]; p < instance.aisleStart[in + 1]; p++) {
+                scratch.incoming[instance.aisleItems[p]] = 0;
+            }
+        }
+        return best;
+    }
+
+    // change of usable slack of the item (capped by its demand not yet picked), minus the new deficit
+    private long gain(int item, int slack, int newSlack) {
+        int remaining = evaluator.unpickedDemand(item);
+        int before = Math.min(Math.max(slack, 0), remaining);
+        int after = Math.min(Math.max(newSlack, 0), remaining);
+        return after - before - Math.max(0, -newSlack);
+    }
+
+    private void apply(int out, int in) {
+        evaluator.removeAisle(out);
+        evaluator.addAisle(in);
+
+        // repair: drop orders of the items in deficit
+        for (int p = instance.aisleStart[out]; p < instance.aisleStart[out + 1]; p++) {
+            int item = instance.aisleItems[p];
+            for (int q = instance.itemOrderStart[item]; q < instance.itemOrderStart[item + 1] && evaluator.slack(item) < 0; q++) {
+                evaluator.removeOrder(instance.itemOrders[q]);
+            }
+        }
+
+        // fill: orders of the new aisle's items that fit
+        for (int p = instance.aisleStart[in]; p < instance.aisleStart[in + 1]; p++) {
+            int item = instance.aisleItems[p];
+            for (int q = instance.itemOrderStart[item]; q < instance.itemOrderStart[item + 1] && evaluator.slack(item) > 0; q++) {
+                int order = instance.itemOrders[q];
+                if (evaluator.orderFits(order)) {
+                    evaluator.addOrder(order);
+                }
+            }
+        }
+    }
+
+    private void splitAisles() {
+        int i = 0, o = 0;
+        for (int a = 0; a < instance.nAisles; a++) {
+            if (evaluator.hasAisle(a)) {
+                inAisles[i++] = a;
+            } else {
+                outAisles[o++] = a;
+            }
+        }
+    }
+}